@@ -0,0 +1,256 @@
+package com.codingame.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.codingame.event.Animation;
+import com.codingame.event.EventBuffer;
+import com.codingame.game.Building;
+import com.codingame.game.City;
+import com.codingame.game.GameLimits;
+import com.codingame.game.GameWarning;
+import com.codingame.game.JsonFields;
+import com.codingame.game.LandingBuilding;
+import com.codingame.game.TestCase;
+import com.codingame.game.TravelManager;
+import com.codingame.game.WorkBuilding;
+import com.codingame.view.FrameSnapshot;
+
+/**
+ * Cities the benchmarks run on, named by the <code>city</code> parameter:
+ * <ul>
+ * <li><code>synthetic-&lt;buildings&gt;</code>: buildings spread uniformly on the map, one in five is a landing pad of 100 astronauts</li>
+ * <li><code>test&lt;n&gt;</code>: every building of <code>config/test&lt;n&gt;.json</code>, as in its last month</li>
+ * </ul>
+ * Both get the same network, see {@link #connect(City, int)}.
+ */
+public class BenchmarkCities {
+    static final int WIDTH = 160;
+    static final int HEIGHT = 90;
+    // Nearest neighbours a building may get a tube to
+    static final int CANDIDATES = 8;
+
+    public static City load(String name) throws IOException {
+        City city;
+        if (name.startsWith("synthetic-")) {
+            city = synthetic(Integer.parseInt(name.substring("synthetic-".length())), 20, 100, 0);
+        } else {
+            city = fromTestCase(Path.of("config", name + ".json"));
+        }
+        connect(city, Integer.MAX_VALUE);
+        return city;
+    }
+
+    public static City synthetic(int buildings, int workTypes, int astronautsPerPad, long seed) {
+        if (buildings > (WIDTH + 1) * (HEIGHT + 1) / 2) {
+            throw new IllegalArgumentException("Too many buildings for a " + WIDTH + "x" + HEIGHT + " map");
+        }
+        Random random = new Random(seed);
+        boolean[][] occupied = new boolean[WIDTH + 1][HEIGHT + 1];
+        City city = newCity(new GameLimits(), buildings);
+        for (int id = 0; id < buildings; id++) {
+            int x, y;
+            do {
+                x = random.nextInt(WIDTH + 1);
+                y = random.nextInt(HEIGHT + 1);
+            } while (occupied[x][y]);
+            occupied[x][y] = true;
+
+            // The first buildings are work buildings, so that the astronauts have somewhere to go
+            Building building;
+            if (id >= workTypes && random.nextInt(5) == 0) {
+                int[] astronautTypes = new int[astronautsPerPad];
+                for (int i = 0; i < astronautsPerPad; i++) {
+                    astronautTypes[i] = 1 + random.nextInt(workTypes);
+                }
+                building = new LandingBuilding(id, x, y, astronautTypes);
+            } else {
+                building = new WorkBuilding(id, x, y, 1 + id % workTypes);
+            }
+            addBuilding(city, building);
+        }
+        return city;
+    }
+
+    /**
+     * Reads the buildings of every month of a test case in the <code>config/</code> format.
+     */
+    public static City fromTestCase(Path json) throws IOException {
+        TestCase testCase = TestCase.read(JsonFields.testIn(Files.readString(json, StandardCharsets.UTF_8)));
+        List<Building> buildings = testCase.newBuildingsPerMonth.stream().flatMap(List::stream).toList();
+        City city = newCity(testCase.limits, buildings.size());
+        for (Building building : buildings) {
+            addBuilding(city, building);
+        }
+        return city;
+    }
+
+    private static City newCity(GameLimits limits, int buildings) {
+        City city = new City();
+        city.limits = limits;
+        // Room for one pod per tube, each tube takes a slot of two buildings
+        city.limits.maxPodId = Math.max(limits.maxPodId, limits.maxTubesPerBuilding * buildings / 2);
+        city.resources = Integer.MAX_VALUE / 2;
+        return city;
+    }
+
+    private static void addBuilding(City city, Building building) {
+        building.remainingTubeSlots = city.limits.maxTubesPerBuilding;
+        city.addBuilding(building);
+        city.maxY = Math.max(city.maxY, building.y);
+    }
+
+    /**
+     * Builds a network that reaches every building it can, with a pod going back and forth along each tube, until the city has
+     * <code>maxTubes</code> tubes:
+     * <ul>
+     * <li>each landing pad is linked to the closest building of each work type of its astronauts, as a player would, when no other of
+     * these tubes is in the way</li>
+     * <li>a spanning tree around them: the shortest tubes to the {@value #CANDIDATES} nearest neighbours that join two parts of the network,
+     * skipping those the city refuses</li>
+     * <li>one more tube per building to the closest neighbour it can still reach, so that astronauts have other routes than the tree</li>
+     * </ul>
+     */
+    public static void connect(City city, int maxTubes) {
+        List<Building> buildings = new ArrayList<>(city.buildings.values());
+        // Union-find of the parts of the network, by building index
+        Map<Building, Integer> index = new HashMap<>();
+        int[] parent = new int[buildings.size()];
+        for (int i = 0; i < parent.length; i++) {
+            index.put(buildings.get(i), i);
+            parent[i] = i;
+        }
+        int[] nextPodId = { 1 };
+
+        for (Building building : buildings) {
+            if (!(building instanceof LandingBuilding landing)) {
+                continue;
+            }
+            for (int workType : Arrays.stream(landing.astronautTypes).distinct().toArray()) {
+                Building closest = buildings.stream()
+                    .filter(other -> other.buildingType == workType)
+                    .min(Comparator.comparingDouble(other -> City.euclideanDist(building, other)))
+                    .orElse(null);
+                if (city.tubes.size() >= maxTubes) {
+                    return;
+                }
+                if (closest != null && tryTube(city, building, closest, nextPodId)) {
+                    parent[root(parent, index.get(building))] = root(parent, index.get(closest));
+                }
+            }
+        }
+
+        Map<Building, List<Building>> neighbours = new HashMap<>();
+        List<Building[]> candidates = new ArrayList<>();
+        for (Building building : buildings) {
+            neighbours.put(building, closest(buildings, building, CANDIDATES));
+            for (Building other : neighbours.get(building)) {
+                candidates.add(new Building[] { building, other });
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(pair -> City.euclideanDist(pair[0], pair[1])));
+        for (Building[] pair : candidates) {
+            if (city.tubes.size() >= maxTubes) {
+                return;
+            }
+            int root1 = root(parent, index.get(pair[0]));
+            int root2 = root(parent, index.get(pair[1]));
+            if (root1 != root2 && tryTube(city, pair[0], pair[1], nextPodId)) {
+                parent[root1] = root2;
+            }
+        }
+
+        for (Building building : buildings) {
+            if (city.tubes.size() >= maxTubes) {
+                return;
+            }
+            for (Building other : neighbours.get(building)) {
+                if (tryTube(city, building, other, nextPodId)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * @return false when the city refuses the tube, an existing tube included
+     */
+    private static boolean tryTube(City city, Building building, Building other, int[] nextPodId) {
+        try {
+            city.createTube(building.id, other.id);
+        } catch (GameWarning e) {
+            return false;
+        }
+        if (nextPodId[0] <= city.limits.maxPodId) {
+            int[] route = new int[city.limits.daysPerMonth + 1];
+            for (int i = 0; i < route.length; i++) {
+                route[i] = i % 2 == 0 ? building.id : other.id;
+            }
+            city.createPod(nextPodId[0]++, route, route.length);
+        }
+        return true;
+    }
+
+    /**
+     * Throws when the network leaves out more than a tenth of the buildings, the benchmark would not measure a real city.
+     */
+    public static void requireConnected(TravelManager travelManager, Building source) {
+        int reached = travelManager.singleSourceShortestPath(source).size();
+        int buildings = travelManager.city.buildings.size();
+        if (reached < buildings * 0.9) {
+            throw new IllegalStateException("Building " + source.id + " only reaches " + reached + " of the " + buildings + " buildings");
+        }
+    }
+
+    static List<Building> closest(List<Building> buildings, Building building, int count) {
+        return buildings.stream()
+            .filter(other -> other != building)
+            .sorted(Comparator.comparingDouble(other -> City.euclideanDist(building, other)))
+            .limit(count)
+            .toList();
+    }
+
+    /**
+     * Plays the first month of the city the way the referee does, one frame per day.
+     */
+    public static List<FrameSnapshot> playMonth(City city) {
+        Animation animation = new Animation();
+        TravelManager travelManager = new TravelManager(city, animation);
+        List<FrameSnapshot> frames = new ArrayList<>();
+        int score = 0;
+        for (int day = 0; day < city.limits.daysPerMonth; day++) {
+            animation.reset();
+            if (day == 0) {
+                travelManager.newMonth();
+            }
+            score += travelManager.simulateDay(day);
+            boolean endOfMonth = travelManager.didNothingMove() || day == city.limits.daysPerMonth - 1;
+
+            EventBuffer events = new EventBuffer();
+            events.copyFrom(animation.getViewerEvents());
+            List<Building> newBuildings = day == 0 ? new ArrayList<>(city.buildings.values()) : List.of();
+            frames.add(new FrameSnapshot(day == 0, endOfMonth, score, city.resources, newBuildings, events));
+            if (endOfMonth) {
+                break;
+            }
+        }
+        return frames;
+    }
+}
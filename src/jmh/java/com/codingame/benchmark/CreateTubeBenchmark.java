@@ -0,0 +1,83 @@
+package com.codingame.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.game.Building;
+import com.codingame.game.BuildingPair;
+import com.codingame.game.City;
+import com.codingame.game.GameWarning;
+import com.codingame.game.Tube;
+
+/**
+ * Adds a tube to a city that already has <code>tubes</code> tubes, then removes it. Every tube is checked against the others, the cost
+ * grows with the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateTubeBenchmark {
+    @Param({ "10", "100", "1000", "3000" })
+    public int tubes;
+
+    private City city;
+    private Building building1;
+    private Building building2;
+
+    @Setup
+    public void setUp() {
+        city = BenchmarkCities.synthetic(Math.max(50, tubes * 2), 20, 100, 0);
+        BenchmarkCities.connect(city, tubes);
+
+        // The first tube that can still be built
+        List<Building> buildings = new ArrayList<>(city.buildings.values());
+        for (int i = buildings.size() - 1; i >= 0 && building1 == null; i--) {
+            for (Building other : BenchmarkCities.closest(buildings, buildings.get(i), 3)) {
+                try {
+                    city.createTube(buildings.get(i).id, other.id);
+                } catch (GameWarning e) {
+                    continue;
+                }
+                building1 = buildings.get(i);
+                building2 = other;
+                removeTube();
+                break;
+            }
+        }
+        if (building1 == null) {
+            throw new IllegalStateException("No room left for another tube");
+        }
+    }
+
+    @Benchmark
+    public Tube createTube() {
+        city.createTube(building1.id, building2.id);
+        return removeTube();
+    }
+
+    private Tube removeTube() {
+        Tube tube = city.tubes.remove(new BuildingPair(building1, building2));
+        city.tubesByBuilding.get(building1).remove(tube);
+        city.tubesByBuilding.get(building2).remove(tube);
+        building1.remainingTubeSlots++;
+        building2.remainingTubeSlots++;
+        city.resources = Integer.MAX_VALUE / 2;
+        return tube;
+    }
+}
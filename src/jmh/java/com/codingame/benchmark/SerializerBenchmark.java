@@ -0,0 +1,116 @@
+package com.codingame.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.codingame.event.EventBuffer;
+import com.codingame.event.EventView;
+import com.codingame.view.EventDictionary;
+import com.codingame.view.FrameEncoder;
+import com.codingame.view.FrameSnapshot;
+import com.codingame.view.Serializer;
+import com.codingame.view.StringCompressor;
+
+/**
+ * The frames of the first month of the city, serialized by a new encoder as in a new game, then the parts of it: the events carrying
+ * astronauts with their worker encoding, and the deflate of the raw frames by a reused compressor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({ "synthetic-200", "synthetic-1000", "synthetic-3000", "test5", "test12" })
+    public String city;
+
+    private List<FrameSnapshot> frames;
+    // The frames of the events carrying astronauts, only these events
+    private List<FrameSnapshot> workerFrames;
+    // The text of every frame, before compression
+    private List<byte[]> rawFrames;
+    private StringCompressor compressor;
+
+    @Setup
+    public void setUp() throws IOException {
+        frames = BenchmarkCities.playMonth(BenchmarkCities.load(city));
+        workerFrames = new ArrayList<>();
+        rawFrames = new ArrayList<>();
+        EventDictionary noDictionary = new EventDictionary(0);
+        for (FrameSnapshot frame : frames) {
+            EventView events = frame.events;
+            StringBuilder raw = new StringBuilder().append(events.size());
+            EventBuffer withWorkers = new EventBuffer();
+            for (int e = 0; e < events.size(); e++) {
+                raw.append(Serializer.MAIN_SEPARATOR).append(Serializer.serialize(events, e, noDictionary));
+                if (events.workerCount(e) > 0) {
+                    withWorkers.beginCopy(events, e);
+                    withWorkers.commit(events.start(e), events.end(e));
+                }
+            }
+            workerFrames.add(new FrameSnapshot(false, false, frame.totalScore, frame.resources, List.of(), withWorkers));
+            rawFrames.add(raw.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        compressor = new StringCompressor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        compressor.end();
+    }
+
+    @Benchmark
+    public void serializeFrameData(Blackhole blackhole) {
+        FrameEncoder encoder = new FrameEncoder(new EventDictionary(EventDictionary.DEFAULT_CAPACITY));
+        for (FrameSnapshot frame : frames) {
+            blackhole.consume(Serializer.serializeFrameData(frame, encoder));
+        }
+        encoder.close();
+    }
+
+    @Benchmark
+    public void serializeBinaryFrameData(Blackhole blackhole) {
+        FrameEncoder encoder = new FrameEncoder(new EventDictionary(EventDictionary.DEFAULT_CAPACITY));
+        for (FrameSnapshot frame : frames) {
+            blackhole.consume(Serializer.serializeBinaryFrameData(frame, encoder));
+        }
+        encoder.close();
+    }
+
+    /**
+     * The worker types of the pods and teleporters, as varints in the binary frames. No dictionary, every event is written in full.
+     */
+    @Benchmark
+    public void workers(Blackhole blackhole) {
+        FrameEncoder encoder = new FrameEncoder(new EventDictionary(0));
+        for (FrameSnapshot frame : workerFrames) {
+            blackhole.consume(Serializer.serializeBinaryFrameData(frame, encoder));
+        }
+        encoder.close();
+    }
+
+    @Benchmark
+    public void compress(Blackhole blackhole) {
+        for (byte[] rawFrame : rawFrames) {
+            blackhole.consume(compressor.compress(rawFrame, rawFrame.length));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.codingame.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.event.Animation;
+import com.codingame.game.TravelManager;
+
+/**
+ * The days of a month, one {@link TravelManager#simulateDay(int)} per day until nothing moves, as the referee plays them. The month is
+ * started again before each invocation, outside of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulateDayBenchmark {
+    @Param({ "synthetic-200", "synthetic-1000", "synthetic-3000", "test5", "test12" })
+    public String city;
+
+    private Animation animation;
+    private TravelManager travelManager;
+
+    @Setup
+    public void setUp() throws IOException {
+        animation = new Animation();
+        travelManager = new TravelManager(BenchmarkCities.load(city), animation);
+        BenchmarkCities.requireConnected(travelManager, travelManager.city.buildings.firstEntry().getValue());
+    }
+
+    @Setup(Level.Invocation)
+    public void startMonth() {
+        animation.reset();
+        travelManager.newMonth();
+    }
+
+    @Benchmark
+    public int simulateDay() {
+        int score = 0;
+        for (int day = 0; day < travelManager.city.limits.daysPerMonth; day++) {
+            animation.reset();
+            score += travelManager.simulateDay(day);
+            if (travelManager.didNothingMove()) {
+                break;
+            }
+        }
+        return score;
+    }
+}
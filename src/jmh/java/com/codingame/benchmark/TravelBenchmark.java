@@ -0,0 +1,66 @@
+package com.codingame.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.event.Animation;
+import com.codingame.game.Astronaut;
+import com.codingame.game.Building;
+import com.codingame.game.TravelManager;
+
+/**
+ * Shortest paths and the start of a month, on a city that does not change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TravelBenchmark {
+    @Param({ "synthetic-200", "synthetic-1000", "synthetic-3000", "test5", "test12" })
+    public String city;
+
+    private Animation animation;
+    private TravelManager travelManager;
+    private Building source;
+
+    @Setup
+    public void setUp() throws IOException {
+        animation = new Animation();
+        travelManager = new TravelManager(BenchmarkCities.load(city), animation);
+        source = travelManager.city.buildings.firstEntry().getValue();
+        BenchmarkCities.requireConnected(travelManager, source);
+    }
+
+    @Benchmark
+    public HashMap<Building, Integer> singleSourceShortestPath() {
+        return travelManager.singleSourceShortestPath(source);
+    }
+
+    @Benchmark
+    public HashMap<Building, HashMap<Integer, Integer>> computeClosestBuildingTypes() {
+        return travelManager.computeClosestBuildingTypes();
+    }
+
+    @Benchmark
+    public HashSet<Astronaut> newMonth() {
+        animation.reset();
+        travelManager.newMonth();
+        return travelManager.astronauts;
+    }
+}
@@ -1,8 +1,5 @@
 package com.codingame.event;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.google.inject.Singleton;
 
 @Singleton
@@ -15,21 +12,45 @@ public class Animation {
     public static final int WHOLE = 1000;
     // Of a second
 
+    /**
+     * Which events reach the viewer. Events of the lower levels are not even built, but still take their time in the frame.
+     */
+    public enum Detail {
+        FULL,
+        // Without the astronaut traffic
+        SIMPLIFIED,
+        // Without the astronaut traffic, summed up by a DAY_SUMMARY event
+        SUMMARY
+    }
+
+    private Detail detail = Detail.FULL;
     private int frameTime;
     private int endTime;
 
-    List<EventData> viewerEvents;
-
-    public Animation() {
-        viewerEvents = new ArrayList<>();
-    }
+    // Reused from one turn to the next
+    private final EventBuffer viewerEvents = new EventBuffer();
 
     public void reset() {
-        getViewerEvents().clear();
+        viewerEvents.reset();
         frameTime = 0;
         endTime = 0;
     }
 
+    public void setDetail(Detail detail) {
+        this.detail = detail;
+    }
+
+    public Detail getDetail() {
+        return detail;
+    }
+
+    public boolean emits(int eventType) {
+        if (eventType == EventData.DAY_SUMMARY) {
+            return detail == Detail.SUMMARY;
+        }
+        return detail == Detail.FULL || !EventData.SIMPLIFIED_SKIPPED_EVENTS.contains(eventType);
+    }
+
     public int wait(int time) {
         return frameTime += time;
     }
@@ -38,17 +59,43 @@ public class Animation {
         return frameTime;
     }
 
-    public void startAnim(EventData e, int duration) {
-        e.animData = new AnimationData(frameTime, duration);
+    /**
+     * Starts writing an event, see {@link #addParam(int)} and {@link #addWorker(int)}. It is added to the frame by {@link #startAnim(int)}
+     * or {@link #waitForAnim(int)}.
+     */
+    public void newEvent(int type) {
+        viewerEvents.begin(type);
+    }
+
+    public void addParam(int value) {
+        viewerEvents.addParam(value);
+    }
+
+    public void addToParam(int idx, int value) {
+        viewerEvents.addToParam(idx, value);
+    }
+
+    public void addWorker(int workType) {
+        viewerEvents.addWorker(workType);
+    }
+
+    public void startAnim(int duration) {
         endTime = Math.max(endTime, frameTime + duration);
-        add(e);
+        add(frameTime, frameTime + duration);
     }
 
-    public void waitForAnim(EventData e, int duration) {
-        e.animData = new AnimationData(frameTime, duration);
+    /**
+     * Takes the time of an event that is not emitted, see {@link #emits(int)}.
+     */
+    public void startSkippedAnim(int duration) {
+        endTime = Math.max(endTime, frameTime + duration);
+    }
+
+    public void waitForAnim(int duration) {
+        int start = frameTime;
         frameTime += duration;
         endTime = Math.max(endTime, frameTime);
-        add(e);
+        add(start, frameTime);
     }
 
     public void setFrameTime(int startTime) {
@@ -64,12 +111,15 @@ public class Animation {
 
     }
 
-    public void add(EventData e) {
-        getViewerEvents().add(e);
-
+    private void add(int start, int end) {
+        if (emits(viewerEvents.pendingType())) {
+            viewerEvents.commit(start, end);
+        } else {
+            viewerEvents.discard();
+        }
     }
 
-    public List<EventData> getViewerEvents() {
+    public EventView getViewerEvents() {
         return viewerEvents;
     }
 }
@@ -0,0 +1,152 @@
+package com.codingame.event;
+
+import java.util.Arrays;
+
+/**
+ * Events stored as parallel arrays, their params and workers in two shared pools. The arrays only grow, a buffer reset every turn stops
+ * allocating once it has seen the busiest turn.
+ * <p>
+ * An event is written with {@link #begin(int)}, then its params and workers, then either {@link #commit(int, int)} or {@link #discard()}.
+ */
+public class EventBuffer implements EventView {
+    private int size;
+    private int[] types = new int[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int[] paramOffsets = new int[65];
+    private int[] workerOffsets = new int[65];
+
+    private int[] params = new int[256];
+    private int paramCount;
+    private int[] workers = new int[256];
+    private int workerCount;
+
+    public void reset() {
+        size = 0;
+        paramCount = 0;
+        workerCount = 0;
+    }
+
+    public void begin(int type) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            paramOffsets = Arrays.copyOf(paramOffsets, capacity + 1);
+            workerOffsets = Arrays.copyOf(workerOffsets, capacity + 1);
+        }
+        types[size] = type;
+        paramCount = paramOffsets[size];
+        workerCount = workerOffsets[size];
+    }
+
+    public void addParam(int value) {
+        if (paramCount == params.length) {
+            params = Arrays.copyOf(params, paramCount * 2);
+        }
+        params[paramCount++] = value;
+    }
+
+    /**
+     * Adds to a param of the event being written.
+     */
+    public void addToParam(int idx, int value) {
+        params[paramOffsets[size] + idx] += value;
+    }
+
+    public void addWorker(int workType) {
+        if (workerCount == workers.length) {
+            workers = Arrays.copyOf(workers, workerCount * 2);
+        }
+        workers[workerCount++] = workType;
+    }
+
+    /**
+     * Drops the workers of the event being written.
+     */
+    public void discardWorkers() {
+        workerCount = workerOffsets[size];
+    }
+
+    public void commit(int start, int end) {
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+        paramOffsets[size] = paramCount;
+        workerOffsets[size] = workerCount;
+    }
+
+    public int pendingType() {
+        return types[size];
+    }
+
+    /**
+     * Drops the event being written.
+     */
+    public void discard() {
+        paramCount = paramOffsets[size];
+        workerCount = workerOffsets[size];
+    }
+
+    /**
+     * Copies the event of another view, params and workers included, without committing it.
+     */
+    public void beginCopy(EventView events, int event) {
+        begin(events.type(event));
+        for (int i = 0; i < events.paramCount(event); i++) {
+            addParam(events.param(event, i));
+        }
+        for (int i = 0; i < events.workerCount(event); i++) {
+            addWorker(events.worker(event, i));
+        }
+    }
+
+    public void copyFrom(EventView events) {
+        reset();
+        for (int i = 0; i < events.size(); i++) {
+            beginCopy(events, i);
+            commit(events.start(i), events.end(i));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int type(int event) {
+        return types[event];
+    }
+
+    @Override
+    public int start(int event) {
+        return starts[event];
+    }
+
+    @Override
+    public int end(int event) {
+        return ends[event];
+    }
+
+    @Override
+    public int paramCount(int event) {
+        return paramOffsets[event + 1] - paramOffsets[event];
+    }
+
+    @Override
+    public int param(int event, int idx) {
+        return params[paramOffsets[event] + idx];
+    }
+
+    @Override
+    public int workerCount(int event) {
+        return workerOffsets[event + 1] - workerOffsets[event];
+    }
+
+    @Override
+    public int worker(int event, int idx) {
+        return workers[workerOffsets[event] + idx];
+    }
+}
@@ -1,7 +1,10 @@
 package com.codingame.event;
 
-import com.codingame.view.history.PodTransport;
+import java.util.List;
 
+/**
+ * Event types. The events of a frame are stored in an {@link EventBuffer}, see the params of each type below.
+ */
 public class EventData {
     public static final int BUILD_TUBE = 0;
     public static final int BUILD_POD = 1;
@@ -12,14 +15,15 @@ public class EventData {
     public static final int DESTROY_POD = 6;
     public static final int NEW_BUILDING = 7;
     public static final int NEW_TELEPORTER = 8;
+    // from, to, pod animation duration, pod count, then for each pod: id, worker count, workers
+    public static final int TRANSPORT_POD_GROUP = 9;
+    // For each building with traffic that day: id, astronauts who left, astronauts who arrived at their workplace
+    public static final int DAY_SUMMARY = 10;
 
-    public int type;
-    public AnimationData animData;
-    public int[] params;
-    public PodTransport podTransport;
-
-    public EventData() {
+    // Not built in simplified mode, see Animation.Detail
+    public static final List<Integer> SIMPLIFIED_SKIPPED_EVENTS = List.of(TRANSPORT_POD, TRANSPORT_TP, ARRIVAL, TRANSPORT_POD_GROUP);
 
+    private EventData() {
     }
 
 }
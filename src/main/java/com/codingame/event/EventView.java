@@ -0,0 +1,26 @@
+package com.codingame.event;
+
+/**
+ * Read-only access to the events of a frame, by index. The view is only valid until the buffer behind it is reset.
+ */
+public interface EventView {
+
+    int size();
+
+    int type(int event);
+
+    int start(int event);
+
+    int end(int event);
+
+    int paramCount(int event);
+
+    int param(int event, int idx);
+
+    /**
+     * @return the number of astronauts carried, only TRANSPORT_POD events have workers
+     */
+    int workerCount(int event);
+
+    int worker(int event, int idx);
+}
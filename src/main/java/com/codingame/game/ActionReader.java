@@ -0,0 +1,165 @@
+package com.codingame.game;
+
+/**
+ * Single-pass cursor over a raw output line. Actions are separated by ';' and trimmed, tokens are separated by a single ' ', exactly like
+ * <code>line.split(";")</code> followed by <code>action.trim().split(" ")</code>, but without creating any intermediate strings.
+ */
+public class ActionReader {
+    private String line;
+    private int nextActionStart;
+
+    private int actionStart, actionEnd;
+    private int tokenCount;
+    private int tokensRead;
+    private int cursor;
+
+    private int[] ints;
+
+    public ActionReader() {
+        ints = new int[Constants.DAYS_PER_MONTH + 1];
+    }
+
+    public void reset(String line) {
+        this.line = line;
+        this.nextActionStart = 0;
+        this.actionStart = 0;
+        this.actionEnd = 0;
+        this.tokenCount = 0;
+        this.tokensRead = 0;
+        this.cursor = 0;
+    }
+
+    /**
+     * Moves to the next action of the line and skips its command token.
+     *
+     * @return false when the whole line has been consumed
+     */
+    public boolean nextAction() {
+        if (nextActionStart > line.length()) {
+            return false;
+        }
+        int separator = line.indexOf(';', nextActionStart);
+        if (separator < 0) {
+            separator = line.length();
+        }
+
+        // Same rule as String.trim()
+        actionStart = nextActionStart;
+        actionEnd = separator;
+        while (actionStart < actionEnd && line.charAt(actionStart) <= ' ') {
+            actionStart++;
+        }
+        while (actionEnd > actionStart && line.charAt(actionEnd - 1) <= ' ') {
+            actionEnd--;
+        }
+        nextActionStart = separator + 1;
+
+        tokenCount = 1;
+        for (int i = actionStart; i < actionEnd; i++) {
+            if (line.charAt(i) == ' ') {
+                tokenCount++;
+            }
+        }
+
+        cursor = actionStart;
+        tokensRead = 0;
+        skipToken();
+        return true;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public boolean isEmptyAction() {
+        return actionStart == actionEnd;
+    }
+
+    public boolean commandIs(String command) {
+        int commandEnd = commandEnd();
+        return commandEnd - actionStart == command.length() && line.regionMatches(actionStart, command, 0, command.length());
+    }
+
+    /**
+     * Parses the next token with the same rules (and failures) as {@link Integer#parseInt(String)}.
+     */
+    public int nextInt() {
+        int start = cursor;
+        int end = skipToken();
+        if (start >= end) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+
+        int i = start;
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == end) {
+                throw new NumberFormatException("For input string: \"" + line.substring(start, end) + "\"");
+            }
+        }
+
+        long value = 0;
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                // Non ASCII digits are rare enough to be left to the JDK
+                return Integer.parseInt(line.substring(start, end));
+            }
+            value = value * 10 + (c - '0');
+            if (value > limit) {
+                return Integer.parseInt(line.substring(start, end));
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses every remaining token of the current action into a buffer that is reused between calls.
+     *
+     * @return the number of integers read, see {@link #getInts()}
+     */
+    public int readRemainingInts() {
+        int count = tokenCount - tokensRead;
+        if (ints.length < count) {
+            ints = new int[Math.max(count, ints.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            ints[i] = nextInt();
+        }
+        return count;
+    }
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public String getAction() {
+        return line.substring(actionStart, actionEnd);
+    }
+
+    public String getCommand() {
+        return line.substring(actionStart, commandEnd());
+    }
+
+    private int commandEnd() {
+        int end = actionStart;
+        while (end < actionEnd && line.charAt(end) != ' ') {
+            end++;
+        }
+        return end;
+    }
+
+    private int skipToken() {
+        int end = cursor;
+        while (end < actionEnd && line.charAt(end) != ' ') {
+            end++;
+        }
+        cursor = end + 1;
+        tokensRead++;
+        return end;
+    }
+}
@@ -0,0 +1,179 @@
+package com.codingame.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a game between two months, written by {@link Referee#writeCheckpoint(DataOutput)}. Everything is a varint, lists
+ * are preceded by their size.
+ * <p>
+ * A checkpoint is replayed with a test case made of a single <code>checkpoint &lt;path&gt;</code> line. Checkpoints are written with
+ * <code>-DmoonCity.checkpoints=&lt;directory&gt;</code>, as <code>month-&lt;months played&gt;.ckpt</code>.
+ * <p>
+ * Maps are written in iteration order and read back in the same order, so that the restored game iterates them like the original one.
+ */
+public class Checkpoint {
+    public static final String HEADER = "checkpoint";
+    public static final String SYSTEM_PROPERTY = "moonCity.checkpoints";
+    static final int MAGIC = 0x4D434B50;
+    static final int VERSION = 1;
+
+    static void writeCity(City city, DataOutput out) throws IOException {
+        writeVarint(out, city.resources);
+        writeVarint(out, city.maxY);
+        writeVarint(out, city.limits.maxPodId);
+        writeVarint(out, city.limits.daysPerMonth);
+        writeVarint(out, city.limits.maxTubesPerBuilding);
+
+        writeVarint(out, city.buildings.size());
+        for (Building building : city.buildings.values()) {
+            writeBuilding(building, out);
+            writeVarint(out, building.remainingTubeSlots);
+            out.writeBoolean(building.hasTeleporter);
+        }
+
+        writeVarint(out, city.teleporters.size());
+        for (Teleporter tp : city.teleporters.values()) {
+            writeVarint(out, tp.buildings.building1.id);
+            writeVarint(out, tp.buildings.building2.id);
+        }
+
+        List<Tube> tubes = new ArrayList<>(city.tubes.values());
+        writeVarint(out, tubes.size());
+        for (Tube tube : tubes) {
+            writeVarint(out, tube.buildings.building1.id);
+            writeVarint(out, tube.buildings.building2.id);
+            writeVarint(out, tube.capacity);
+        }
+        // The tubes of each building, as indices of the list above
+        writeVarint(out, city.tubesByBuilding.size());
+        for (Map.Entry<Building, ArrayList<Tube>> entry : city.tubesByBuilding.entrySet()) {
+            writeVarint(out, entry.getKey().id);
+            writeVarint(out, entry.getValue().size());
+            for (Tube tube : entry.getValue()) {
+                writeVarint(out, tubes.indexOf(tube));
+            }
+        }
+
+        writeVarint(out, city.pods.size());
+        for (TransportPod pod : city.pods.values()) {
+            writeVarint(out, pod.id);
+            writeVarint(out, pod.route.size());
+            for (Building building : pod.route) {
+                writeVarint(out, building.id);
+            }
+        }
+    }
+
+    static City readCity(DataInput in) throws IOException {
+        City city = new City();
+        city.resources = readVarint(in);
+        city.maxY = readVarint(in);
+        city.limits.maxPodId = readVarint(in);
+        city.limits.daysPerMonth = readVarint(in);
+        city.limits.maxTubesPerBuilding = readVarint(in);
+
+        for (int i = readVarint(in); i > 0; i--) {
+            Building building = readBuilding(in);
+            building.remainingTubeSlots = readVarint(in);
+            building.hasTeleporter = in.readBoolean();
+            city.buildings.put(building.id, building);
+        }
+
+        for (int i = readVarint(in); i > 0; i--) {
+            Building building1 = city.buildings.get(readVarint(in));
+            Building building2 = city.buildings.get(readVarint(in));
+            Teleporter teleporter = new Teleporter(building1, building2);
+            city.teleporters.put(teleporter.buildings, teleporter);
+            city.teleporterByBuilding.put(building1, teleporter);
+            city.teleporterByBuilding.put(building2, teleporter);
+        }
+
+        List<Tube> tubes = new ArrayList<>();
+        for (int i = readVarint(in); i > 0; i--) {
+            Building building1 = city.buildings.get(readVarint(in));
+            Building building2 = city.buildings.get(readVarint(in));
+            Tube tube = new Tube(building1, building2);
+            tube.capacity = readVarint(in);
+            city.tubes.put(tube.buildings, tube);
+            tubes.add(tube);
+        }
+        for (int i = readVarint(in); i > 0; i--) {
+            Building building = city.buildings.get(readVarint(in));
+            ArrayList<Tube> buildingTubes = new ArrayList<>();
+            for (int j = readVarint(in); j > 0; j--) {
+                buildingTubes.add(tubes.get(readVarint(in)));
+            }
+            city.tubesByBuilding.put(building, buildingTubes);
+        }
+
+        for (int i = readVarint(in); i > 0; i--) {
+            int id = readVarint(in);
+            ArrayList<Building> route = new ArrayList<>();
+            for (int j = readVarint(in); j > 0; j--) {
+                route.add(city.buildings.get(readVarint(in)));
+            }
+            city.pods.put(id, new TransportPod(id, route, city.limits.daysPerMonth));
+        }
+        return city;
+    }
+
+    /**
+     * Only what the test case says about the building, see {@link #writeCity(City, DataOutput)} for its state.
+     */
+    static void writeBuilding(Building building, DataOutput out) throws IOException {
+        writeVarint(out, building.id);
+        writeVarint(out, building.buildingType);
+        writeVarint(out, building.x);
+        writeVarint(out, building.y);
+        if (building instanceof LandingBuilding landingPad) {
+            writeVarint(out, landingPad.astronautTypes.length);
+            for (int type : landingPad.astronautTypes) {
+                writeVarint(out, type);
+            }
+        }
+    }
+
+    static Building readBuilding(DataInput in) throws IOException {
+        int id = readVarint(in);
+        int type = readVarint(in);
+        int x = readVarint(in);
+        int y = readVarint(in);
+        if (type != Constants.LANDING_BUILDING_TYPE) {
+            return new WorkBuilding(id, x, y, type);
+        }
+        int[] astronautTypes = new int[readVarint(in)];
+        for (int i = 0; i < astronautTypes.length; i++) {
+            astronautTypes[i] = readVarint(in);
+        }
+        return new LandingBuilding(id, x, y, astronautTypes);
+    }
+
+    /**
+     * Zigzag LEB128, like the binary frames.
+     */
+    static void writeVarint(DataOutput out, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte(zigzag);
+    }
+
+    static int readVarint(DataInput in) throws IOException {
+        int zigzag = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -16,6 +16,7 @@ public class City {
     public TreeMap<Integer, Building> buildings;
     public int resources;
     public int maxY;
+    public GameLimits limits;
 
     public City() {
         pods = new TreeMap<Integer, TransportPod>();
@@ -26,6 +27,7 @@ public class City {
         buildings = new TreeMap<Integer, Building>();
         resources = 0;
         maxY = 0;
+        limits = new GameLimits();
     }
 
     public void createTeleporter(int buildingId1, int buildingId2) {
@@ -163,21 +165,22 @@ public class City {
         tube.capacity++;
     }
 
-    public void createPod(int id, ArrayList<Integer> buildingIds) {
+    public void createPod(int id, int[] buildingIds, int routeLength) {
         if (pods.containsKey(id)) {
             throw new GameWarning(
                 "Warning: could not create pod, another pod with id " + id + " already exists. Destroy it first or use another id."
             );
         }
         
-        if (id < 0 || id > Constants.MAX_POD_ID) {
+        if (id < 0 || id > limits.maxPodId) {
         	throw new GameWarning(
-                "Warning: could not create pod, the id must be between 0 and " + Constants.MAX_POD_ID + "."
+                "Warning: could not create pod, the id must be between 0 and " + limits.maxPodId + "."
             );
         }
 
-        ArrayList<Building> route = new ArrayList<Building>();
-        for (int buildingId : buildingIds) {
+        ArrayList<Building> route = new ArrayList<Building>(routeLength);
+        for (int i = 0; i < routeLength; i++) {
+            int buildingId = buildingIds[i];
             Building building = getBuildingById(buildingId);
             if (building == null) {
                 throw new GameWarning("Warning: could not create pod, building " + buildingId + " does not exist.");
@@ -185,10 +188,10 @@ public class City {
             route.add(building);
         }
 
-        for (int i = 0; i < buildingIds.size() - 1; i++) {
-            if (getTubeByBuildingIds(buildingIds.get(i), buildingIds.get(i + 1)) == null) {
+        for (int i = 0; i < routeLength - 1; i++) {
+            if (getTubeByBuildings(route.get(i), route.get(i + 1)) == null) {
                 throw new GameWarning(
-                    "Warning: could not create pod, there is no tube between buildings " + buildingIds.get(i) + " and " + buildingIds.get(i + 1)
+                    "Warning: could not create pod, there is no tube between buildings " + buildingIds[i] + " and " + buildingIds[i + 1]
                 );
             }
         }
@@ -198,7 +201,7 @@ public class City {
         }
 
         resources -= Constants.POD_COST;
-        TransportPod pod = new TransportPod(id, route);
+        TransportPod pod = new TransportPod(id, route, limits.daysPerMonth);
         pods.put(id, pod);
     }
 
@@ -1,9 +1,5 @@
 package com.codingame.game;
 
-import java.util.List;
-
-import com.codingame.event.EventData;
-
 public class Constants {
     public static final int BOARD_SIZE_X = 192;
     public static final int BOARD_SIZE_Y = 108;
@@ -33,9 +29,5 @@ public class Constants {
 
     public static final int LANDING_BUILDING_TYPE = 0;
 
-    public static final int ASTRONAUT_ID_MULT = 1000; // Needs to be higher than the max number of astronauts per rocket
-
     public static final int MAX_WARNINGS_DISPLAYED = 5;
-
-    public static final List<Integer> SIMPLIFIED_SKIPPED_EVENTS = List.of(EventData.TRANSPORT_POD, EventData.TRANSPORT_TP, EventData.ARRIVAL);
 }
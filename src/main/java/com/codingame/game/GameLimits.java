@@ -0,0 +1,34 @@
+package com.codingame.game;
+
+/**
+ * Per-game overrides of the scale limits found in {@link Constants}, set with an optional header line of the test case:
+ * <code>limits pods=5000 days=40 tubes=10</code>
+ */
+public class GameLimits {
+    public static final String HEADER = "limits";
+
+    public int maxPodId = Constants.MAX_POD_ID;
+    public int daysPerMonth = Constants.DAYS_PER_MONTH;
+    public int maxTubesPerBuilding = Constants.MAX_TUBES_PER_BUILDING;
+
+    public void set(String key, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Invalid value for limit " + key + ": " + value);
+        }
+        switch (key) {
+            case "pods" -> maxPodId = value;
+            case "days" -> daysPerMonth = value;
+            case "tubes" -> maxTubesPerBuilding = value;
+            default -> throw new IllegalArgumentException("Unknown limit " + key + ", expected pods, days or tubes");
+        }
+    }
+
+    public boolean isDefault() {
+        return maxPodId == Constants.MAX_POD_ID && daysPerMonth == Constants.DAYS_PER_MONTH
+            && maxTubesPerBuilding == Constants.MAX_TUBES_PER_BUILDING;
+    }
+
+    public String formatHeader() {
+        return HEADER + " pods=" + maxPodId + " days=" + daysPerMonth + " tubes=" + maxTubesPerBuilding;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codingame.game;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+
+/**
+ * A Java agent called directly by the referee, without the text protocol. Meant for local evaluation: the text input and output stay the
+ * reference.
+ * <p>
+ * Enabled with <code>-DmoonCity.inProcessAgent=&lt;class name&gt;</code>, the class needs a no-arg constructor. The game is still started
+ * by the runner with a regular agent, which is never asked to play.
+ */
+public interface InProcessAgent {
+    String SYSTEM_PROPERTY = "moonCity.inProcessAgent";
+
+    /**
+     * @return the actions of the month, such as <code>TUBE 0 1</code>, with the same rules as the output line. No action means WAIT.
+     */
+    List<String> play(MonthState state);
+
+    static InProcessAgent fromSystemProperty() {
+        String className = System.getProperty(SYSTEM_PROPERTY);
+        if (className == null || className.isEmpty()) {
+            return null;
+        }
+        try {
+            Constructor<? extends InProcessAgent> constructor = Class.forName(className).asSubclass(InProcessAgent.class).getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Cannot create the in-process agent " + className, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.codingame.game;
+
+import java.util.List;
+
+/**
+ * The few JSON fields the tools read and write: the <code>testIn</code> of the test cases in <code>config/</code> and the metadata of a
+ * game result, a flat object whose values are strings or numbers.
+ */
+public class JsonFields {
+
+    /**
+     * @return the value of the first field with this key, unescaped, null when there is none or it is not a string or a number
+     */
+    public static String get(String json, String key) {
+        String name = quote(key);
+        for (int at = json.indexOf(name); at >= 0; at = json.indexOf(name, at + 1)) {
+            int i = skipSpaces(json, at + name.length());
+            if (i == json.length() || json.charAt(i) != ':') {
+                // The key was a value
+                continue;
+            }
+            i = skipSpaces(json, i + 1);
+            if (i < json.length() && json.charAt(i) == '"') {
+                return unquote(json, i);
+            }
+            int end = i;
+            while (end < json.length() && (Character.isDigit(json.charAt(end)) || "+-.eE".indexOf(json.charAt(end)) >= 0)) {
+                end++;
+            }
+            return end > i ? json.substring(i, end) : null;
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of a numeric field, or the default when the game did not report it
+     */
+    public static long getLong(String json, String key, long defaultValue) {
+        String value = get(json, key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * @return the lines of the test case of a <code>config/</code> file
+     */
+    public static List<String> testIn(String json) {
+        String testIn = get(json, "testIn");
+        if (testIn == null) {
+            throw new IllegalArgumentException("No testIn in the test case");
+        }
+        return List.of(testIn.split("\n"));
+    }
+
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static String unquote(String json, int start) {
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                c = json.charAt(++i);
+                switch (c) {
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        value.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> value.append(c);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string at " + start);
+    }
+
+    private static int skipSpaces(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
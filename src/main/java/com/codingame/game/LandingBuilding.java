@@ -1,11 +1,9 @@
 package com.codingame.game;
 
-import java.util.ArrayList;
-
 public class LandingBuilding extends Building {
-    public ArrayList<Integer> astronautTypes;
+    public int[] astronautTypes;
 
-    public LandingBuilding(int id, int x, int y, ArrayList<Integer> astronautTypes) {
+    public LandingBuilding(int id, int x, int y, int[] astronautTypes) {
         super(id, x, y);
         this.astronautTypes = astronautTypes;
         this.buildingType = Constants.LANDING_BUILDING_TYPE;
@@ -13,8 +11,8 @@ public class LandingBuilding extends Building {
 
     public String formatString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(buildingType).append(" ").append(id).append(" ").append(x).append(" ").append(y).append(" ").append(astronautTypes.size());
-        for (Integer type : astronautTypes) {
+        sb.append(buildingType).append(" ").append(id).append(" ").append(x).append(" ").append(y).append(" ").append(astronautTypes.length);
+        for (int type : astronautTypes) {
             sb.append(" ").append(type);
         }
         return sb.toString();
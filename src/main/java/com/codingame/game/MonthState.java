@@ -0,0 +1,51 @@
+package com.codingame.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an {@link InProcessAgent} is given at the start of a month, the same content as the text input.
+ */
+public record MonthState(
+    int resources,
+    List<Route> routes,
+    List<Pod> pods,
+    List<NewBuilding> newBuildings
+) {
+    /**
+     * A tube, or a teleporter when the capacity is 0.
+     */
+    public record Route(int buildingId1, int buildingId2, int capacity) {
+    }
+
+    public record Pod(int id, int[] route) {
+    }
+
+    /**
+     * @param astronautTypes work types of the astronauts landing every month, only for landing pads
+     */
+    public record NewBuilding(int type, int id, int x, int y, int[] astronautTypes) {
+    }
+
+    static MonthState of(City city, List<Building> newBuildings) {
+        List<Route> routes = new ArrayList<>(city.tubes.size() + city.teleporters.size());
+        for (Teleporter tp : city.teleporters.values()) {
+            routes.add(new Route(tp.buildings.building1.id, tp.buildings.building2.id, 0));
+        }
+        for (Tube tube : city.tubes.values()) {
+            routes.add(new Route(tube.buildings.building1.id, tube.buildings.building2.id, tube.capacity));
+        }
+
+        List<Pod> pods = new ArrayList<>(city.pods.size());
+        for (TransportPod pod : city.pods.values()) {
+            pods.add(new Pod(pod.id, pod.route.stream().mapToInt(b -> b.id).toArray()));
+        }
+
+        List<NewBuilding> buildings = new ArrayList<>(newBuildings.size());
+        for (Building building : newBuildings) {
+            int[] astronautTypes = building instanceof LandingBuilding landingPad ? landingPad.astronautTypes.clone() : null;
+            buildings.add(new NewBuilding(building.buildingType, building.id, building.x, building.y, astronautTypes));
+        }
+        return new MonthState(city.resources, List.copyOf(routes), List.copyOf(pods), List.copyOf(buildings));
+    }
+}
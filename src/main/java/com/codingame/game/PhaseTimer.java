@@ -0,0 +1,200 @@
+package com.codingame.game;
+
+import java.util.Locale;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Time spent in each phase of a turn, enabled with <code>-DmoonCity.phaseTimes=true</code>. The referee puts a summary of every phase in
+ * the <code>phaseTimes</code> metadata at the end of the game, and each measure is also a <code>moonCity.Phase</code> JFR event when a
+ * recording is running.
+ * <p>
+ * Phases are measured back to back:
+ *
+ * <pre>
+ * long time = timer.start();
+ * ...
+ * time = timer.lap(Phase.INPUT, time);
+ * ...
+ * time = timer.lap(Phase.AGENT, time);
+ * </pre>
+ *
+ * When disabled, <code>start</code> and <code>lap</code> only return 0.
+ */
+public class PhaseTimer {
+    public static final String SYSTEM_PROPERTY = "moonCity.phaseTimes";
+    public static final PhaseTimer DISABLED = new PhaseTimer(false);
+
+    public enum Phase {
+        // Month input written for the agent, or new buildings added for the in-process agent
+        INPUT,
+        // From the input sent to the output received, the referee launches the building events meanwhile
+        AGENT,
+        // Output line parsed and actions applied to the city
+        ACTIONS,
+        // Shortest paths of TravelManager.newMonth
+        DISTANCES,
+        // Astronauts of TravelManager.newMonth, with their arrival events
+        SPAWN,
+        // The steps of TravelManager.simulateDay
+        TELEPORTS,
+        POD_DEPARTURES,
+        BOARDING,
+        POD_EVENTS,
+        // Events of the teleporters, tubes and upgrades built by the actions
+        ACTION_EVENTS,
+        // Frame duration and the events of the frame, once the day is simulated
+        FRAME_EVENTS,
+        // Frame serialized by the view module, compression included
+        FRAME,
+        COMPRESSION
+    }
+
+    private final boolean enabled;
+    private final Histogram[] histograms = new Histogram[Phase.values().length];
+    private int turn;
+
+    public PhaseTimer(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    public static PhaseTimer fromSystemProperty() {
+        return Boolean.getBoolean(SYSTEM_PROPERTY) ? new PhaseTimer(true) : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setTurn(int turn) {
+        this.turn = turn;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends a phase started at <code>start</code>.
+     *
+     * @return the start of the next phase
+     */
+    public long lap(Phase phase, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long nanos = now - start;
+        histograms[phase.ordinal()].record(nanos);
+
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.name();
+            event.turn = turn;
+            event.nanos = nanos;
+            event.commit();
+        }
+        return now;
+    }
+
+    /**
+     * @return the count, total, percentiles and maximum of each phase measured, in microseconds
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = histograms[phase.ordinal()];
+            if (histogram.count == 0) {
+                continue;
+            }
+            json.append(json.length() == 1 ? "" : ",").append('"').append(phase.name().toLowerCase(Locale.ROOT)).append("\":");
+            json.append("{\"count\":").append(histogram.count)
+                .append(",\"totalMicros\":").append(histogram.total / 1000)
+                .append(",\"p50Micros\":").append(histogram.percentile(50) / 1000)
+                .append(",\"p99Micros\":").append(histogram.percentile(99) / 1000)
+                .append(",\"maxMicros\":").append(histogram.max / 1000)
+                .append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Log-linear buckets: 8 per power of two, so percentiles are within 12.5% of the measures.
+     */
+    static class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        final long[] buckets = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+        long count;
+        long total;
+        long max;
+
+        void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            buckets[bucket(nanos)]++;
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return the highest value of the bucket holding the percentile, at most the maximum
+         */
+        static long bucketEnd(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        long percentile(int percent) {
+            long rank = Math.max(1, (long) Math.ceil(percent / 100d * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    return Math.min(bucketEnd(bucket), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    @Name("moonCity.Phase")
+    @Label("Turn Phase")
+    @Category("Moon City")
+    @Description("Time spent in one phase of a referee turn")
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Turn")
+        int turn;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+}
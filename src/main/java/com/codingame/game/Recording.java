@@ -0,0 +1,112 @@
+package com.codingame.game;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The output lines of a game, saved to be replayed without the agent. A recording is a test case in the <code>config/</code> format,
+ * whose input starts with a header line, followed by the outputs and by the original test case:
+ *
+ * <pre>
+ * replay &lt;recorded score&gt; &lt;output count&gt; [timeout]
+ * &lt;output of month 1&gt;
+ * ...
+ * &lt;original test case&gt;
+ * </pre>
+ *
+ * Games are recorded with <code>-DmoonCity.recordOutputs=&lt;directory&gt;</code>. A replay plays the outputs in-process, sends no frame,
+ * and warns in the game summary when the score differs from the recorded one. The header ends with <code>timeout</code> when the agent timed
+ * out after its last output, the replay then times out at the same month.
+ */
+public class Recording {
+    public static final String HEADER = "replay";
+    public static final String TIMEOUT = "timeout";
+    public static final String SYSTEM_PROPERTY = "moonCity.recordOutputs";
+
+    public final int recordedScore;
+    public final boolean timedOut;
+    public final List<String> outputs;
+    public final List<String> testCaseInput;
+
+    private Recording(int recordedScore, boolean timedOut, List<String> outputs, List<String> testCaseInput) {
+        this.recordedScore = recordedScore;
+        this.timedOut = timedOut;
+        this.outputs = outputs;
+        this.testCaseInput = testCaseInput;
+    }
+
+    /**
+     * @return null when the test case is not a recording
+     */
+    public static Recording parse(List<String> testCaseInput) {
+        if (testCaseInput.isEmpty() || !testCaseInput.get(0).startsWith(HEADER + " ")) {
+            return null;
+        }
+        String[] header = testCaseInput.get(0).trim().split(" ");
+        boolean timedOut = header.length == 4 && header[3].equals(TIMEOUT);
+        if (header.length != 3 && !timedOut) {
+            throw new IllegalArgumentException(
+                "Invalid replay header " + testCaseInput.get(0) + ", expected: replay <score> <output count> [" + TIMEOUT + "]"
+            );
+        }
+        int outputCount = Integer.parseInt(header[2]);
+        return new Recording(
+            Integer.parseInt(header[1]),
+            timedOut,
+            testCaseInput.subList(1, 1 + outputCount),
+            testCaseInput.subList(1 + outputCount, testCaseInput.size())
+        );
+    }
+
+    /**
+     * Plays the recorded outputs in order, then nothing: the game ends the way it ended when recorded, the referee times the agent out
+     * when the recording did, see {@link #timedOut}.
+     */
+    public InProcessAgent agent() {
+        return new InProcessAgent() {
+            private int month;
+
+            @Override
+            public List<String> play(MonthState state) {
+                return month < outputs.size() ? List.of(outputs.get(month++)) : null;
+            }
+        };
+    }
+
+    /**
+     * Writes the recording in the directory, named after the hashes of its test case and outputs so that the same game is only saved once.
+     */
+    public static Path write(Path directory, List<String> testCaseInput, List<String> outputs, int score, boolean timedOut)
+        throws IOException {
+        StringBuilder input = new StringBuilder();
+        input.append(HEADER).append(' ').append(score).append(' ').append(outputs.size());
+        if (timedOut) {
+            input.append(' ').append(TIMEOUT);
+        }
+        input.append('\n');
+        for (String output : outputs) {
+            input.append(output).append('\n');
+        }
+        for (String line : testCaseInput) {
+            input.append(line).append('\n');
+        }
+
+        String name = String.format("%08x-%08x", testCaseInput.hashCode(), outputs.hashCode());
+        String json = "{\n"
+            + "    \"title\": {\n"
+            + "        \"2\": \"Replay " + name + "\",\n"
+            + "        \"1\": \"Replay " + name + "\"\n"
+            + "    },\n"
+            + "    \"testIn\": " + JsonFields.quote(input.toString()) + ",\n"
+            + "    \"isTest\": \"true\",\n"
+            + "    \"isValidator\": \"false\"\n"
+            + "}";
+        Files.createDirectories(directory);
+        Path path = directory.resolve(name + ".json");
+        Files.writeString(path, json, StandardCharsets.UTF_8);
+        return path;
+    }
+}
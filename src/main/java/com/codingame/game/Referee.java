@@ -1,14 +1,26 @@
 package com.codingame.game;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.codingame.event.Animation;
 import com.codingame.event.EventData;
+import com.codingame.event.EventView;
 import com.codingame.gameengine.core.AbstractPlayer.TimeoutException;
 import com.codingame.gameengine.core.AbstractReferee;
 import com.codingame.gameengine.core.SoloGameManager;
@@ -20,10 +32,25 @@ import com.codingame.view.history.TubeUpgrade;
 import com.google.inject.Inject;
 
 public class Referee extends AbstractReferee {
+    public static final String SUMMARY_HEADER = "summary";
+    public static final String TURN_TIMES_PROPERTY = "moonCity.turnTimes";
+
     @Inject private SoloGameManager<Player> gameManager;
     @Inject private ViewModule view;
     @Inject private Animation animation;
 
+    private ActionReader actionReader = new ActionReader();
+    private InProcessAgent inProcessAgent = InProcessAgent.fromSystemProperty();
+    private Recording replay;
+    // Only kept with -DmoonCity.recordOutputs=<directory>, see Recording
+    private List<String> recordedOutputs = System.getProperty(Recording.SYSTEM_PROPERTY) != null ? new ArrayList<>() : null;
+    private boolean timedOut;
+    private List<String> testCaseInput;
+    // Only kept with -DmoonCity.turnTimes=true: from the start of each turn to the start of the next one, or the end of the game
+    private List<Integer> turnMicros = Boolean.getBoolean(TURN_TIMES_PROPERTY) ? new ArrayList<>() : null;
+    private long turnStart;
+    public final PhaseTimer phaseTimer = PhaseTimer.fromSystemProperty();
+
     private int numMonths;
 
     public ArrayList<ArrayList<Building>> newBuildingsPerMonth;
@@ -39,70 +66,45 @@ public class Referee extends AbstractReferee {
     @Override
     public void init() {
         view.init(this);
+        ScriptedOutputs scriptedOutputs = ScriptedOutputs.current();
+        if (scriptedOutputs != null) {
+            inProcessAgent = scriptedOutputs;
+        }
         gameManager.setFrameDuration(500);
         gameManager.setTurnMaxTime(500);
 
         newBuildingsPerMonth = new ArrayList<ArrayList<Building>>();
         addedResourcesPerMonth = new ArrayList<Integer>();
         city = new City();
-        travelManager = new TravelManager(city, animation);
         totalScore = 0;
 
-        int maxY = newBuildingsPerMonth.stream().flatMap(bpm -> bpm.stream()).mapToInt(b -> b.y).max().orElse(0);
-        city.maxY = maxY;
-
-        int buildingIdIncrementer = 0;
-
-        int fileLinePtr = 0;
-        String line = gameManager.getTestCaseInput().get(fileLinePtr);
-        gameRatio = null;
-        if (line.startsWith("x")) {
-            gameRatio = Integer.valueOf(line.substring(1));
-            fileLinePtr++;
-            line = gameManager.getTestCaseInput().get(fileLinePtr);
+        testCaseInput = gameManager.getTestCaseInput();
+        replay = Recording.parse(testCaseInput);
+        if (replay != null) {
+            testCaseInput = replay.testCaseInput;
+            inProcessAgent = replay.agent();
         }
-
-        simplifiedMode = false;
-        if (line.startsWith("simplified")) {
-            simplifiedMode = true;
-            fileLinePtr++;
-            line = gameManager.getTestCaseInput().get(fileLinePtr);
+        if (!testCaseInput.isEmpty() && testCaseInput.get(0).startsWith(Checkpoint.HEADER + " ")) {
+            Path checkpoint = Path.of(testCaseInput.get(0).substring(Checkpoint.HEADER.length() + 1).trim());
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+                restoreCheckpoint(in);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            travelManager = newTravelManager();
+            skipViewerEventsInReplay();
+            launchRestoredCityEvents();
+            return;
         }
+        travelManager = newTravelManager();
 
-        numMonths = Integer.valueOf(gameManager.getTestCaseInput().get(fileLinePtr++));
-        gameManager.setMaxTurns(numMonths * Constants.DAYS_PER_MONTH + 1);
+        int maxY = newBuildingsPerMonth.stream().flatMap(bpm -> bpm.stream()).mapToInt(b -> b.y).max().orElse(0);
+        city.maxY = maxY;
 
-        for (int month = 0; month < numMonths; month++) {
-            String[] monthInitData = gameManager.getTestCaseInput().get(fileLinePtr).split(" ");
-            fileLinePtr++;
-
-            int numBuildingsBuilt = Integer.parseInt(monthInitData[0]);
-            int newResources = Integer.parseInt(monthInitData[1]);
-            addedResourcesPerMonth.add(newResources);
-            ArrayList<Building> newBuildingsThisMonth = new ArrayList<Building>();
-            for (int i = 0; i < numBuildingsBuilt; i++) {
-                String[] buildingData = gameManager.getTestCaseInput().get(fileLinePtr).split(" ");
-                fileLinePtr++;
-                int buildingType = Integer.parseInt(buildingData[0]);
-                int x = Integer.parseInt(buildingData[1]);
-                int y = Integer.parseInt(buildingData[2]);
-                if (buildingType == Constants.LANDING_BUILDING_TYPE) {
-                    String[] astronautTypeData = gameManager.getTestCaseInput().get(fileLinePtr).split(" ");
-                    fileLinePtr++;
-                    ArrayList<Integer> astronautTypes = new ArrayList<Integer>();
-                    for (String astronautType : astronautTypeData) {
-                        astronautTypes.add(Integer.parseInt(astronautType));
-                    }
-                    Building newBuilding = new LandingBuilding(buildingIdIncrementer, x, y, astronautTypes);
-                    newBuildingsThisMonth.add(newBuilding);
-                    buildingIdIncrementer++;
-                } else {
-                    Building newBuilding = new WorkBuilding(buildingIdIncrementer, x, y, buildingType);
-                    newBuildingsThisMonth.add(newBuilding);
-                    buildingIdIncrementer++;
-                }
-            }
-            newBuildingsPerMonth.add(newBuildingsThisMonth);
+        try {
+            readTestCase(TestCase.read(testCaseInput));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
 
         newBuildingsThisMonth = newBuildingsPerMonth.get(0);
@@ -114,6 +116,140 @@ public class Referee extends AbstractReferee {
         int newResourcesThisMonth = addedResourcesPerMonth.get(0);
         city.resources += newResourcesThisMonth;
         astronautsWereEmpty = false;
+        skipViewerEventsInReplay();
+        saveCheckpoint();
+    }
+
+    private TravelManager newTravelManager() {
+        TravelManager travelManager = new TravelManager(city, animation);
+        travelManager.trace = SimulationTrace.fromSystemProperty(testCaseInput);
+        travelManager.timer = phaseTimer;
+        return travelManager;
+    }
+
+    private void skipViewerEventsInReplay() {
+        // Nothing is shown, the astronaut traffic does not need to be animated
+        if (replay != null) {
+            animation.setDetail(Animation.Detail.SIMPLIFIED);
+        }
+    }
+
+    /**
+     * Writes the game as it is between two months: the next month has not started, its resources are already added.
+     */
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(Checkpoint.MAGIC);
+        Checkpoint.writeVarint(out, Checkpoint.VERSION);
+        Checkpoint.writeVarint(out, gameRatio == null ? 0 : gameRatio + 1);
+        Checkpoint.writeVarint(out, animation.getDetail().ordinal());
+        out.writeBoolean(simplifiedMode);
+        Checkpoint.writeVarint(out, numMonths);
+        Checkpoint.writeVarint(out, currentMonth);
+        Checkpoint.writeVarint(out, totalScore);
+        Checkpoint.writeCity(city, out);
+        for (int month = currentMonth; month < numMonths; month++) {
+            Checkpoint.writeVarint(out, addedResourcesPerMonth.get(month));
+            Checkpoint.writeVarint(out, newBuildingsPerMonth.get(month).size());
+            for (Building building : newBuildingsPerMonth.get(month)) {
+                Checkpoint.writeBuilding(building, out);
+            }
+        }
+    }
+
+    private void restoreCheckpoint(DataInput in) throws IOException {
+        if (in.readInt() != Checkpoint.MAGIC) {
+            throw new IOException("Not a checkpoint");
+        }
+        int version = Checkpoint.readVarint(in);
+        if (version != Checkpoint.VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ", expected " + Checkpoint.VERSION);
+        }
+        int ratio = Checkpoint.readVarint(in);
+        gameRatio = ratio == 0 ? null : ratio - 1;
+        animation.setDetail(Animation.Detail.values()[Checkpoint.readVarint(in)]);
+        simplifiedMode = in.readBoolean();
+        numMonths = Checkpoint.readVarint(in);
+        currentMonth = Checkpoint.readVarint(in);
+        totalScore = Checkpoint.readVarint(in);
+        city = Checkpoint.readCity(in);
+
+        // Months already played are left empty
+        for (int month = 0; month < numMonths; month++) {
+            newBuildingsPerMonth.add(new ArrayList<>());
+            addedResourcesPerMonth.add(0);
+        }
+        for (int month = currentMonth; month < numMonths; month++) {
+            addedResourcesPerMonth.set(month, Checkpoint.readVarint(in));
+            for (int i = Checkpoint.readVarint(in); i > 0; i--) {
+                Building building = Checkpoint.readBuilding(in);
+                building.remainingTubeSlots = city.limits.maxTubesPerBuilding;
+                // The buildings of the first month are already in the city
+                newBuildingsPerMonth.get(month).add(city.buildings.getOrDefault(building.id, building));
+            }
+        }
+        gameManager.setMaxTurns((numMonths - currentMonth) * city.limits.daysPerMonth + 1);
+
+        newBuildingsThisMonth = newBuildingsPerMonth.get(currentMonth);
+        // The viewer starts with every building already built
+        newBuildingsforView = new ArrayList<>(city.buildings.values());
+        astronautsWereEmpty = false;
+    }
+
+    /**
+     * The viewer only gets the buildings of a restored game in its global data, the first frame builds what the months already played
+     * built on them.
+     */
+    private void launchRestoredCityEvents() {
+        List<TeleporterBuild> teleporterBuilds = new ArrayList<>();
+        for (Teleporter tp : city.teleporters.values()) {
+            teleporterBuilds.add(new TeleporterBuild(tp.buildings.building1.id, tp.buildings.building2.id));
+        }
+        List<TubeBuild> tubeBuilds = new ArrayList<>();
+        List<TubeUpgrade> tubeUpgrades = new ArrayList<>();
+        for (Tube tube : city.tubes.values()) {
+            Building building1 = tube.buildings.building1, building2 = tube.buildings.building2;
+            tubeBuilds.add(new TubeBuild(building1.id, building2.id, City.euclideanDist(building1, building2)));
+            for (int upgrade = 1; upgrade < tube.capacity; upgrade++) {
+                tubeUpgrades.add(new TubeUpgrade(building1.id, building2.id));
+            }
+        }
+
+        launchNewTeleporterEvents(teleporterBuilds);
+        animation.catchUp();
+        launchBuildEvents(tubeBuilds);
+        animation.catchUp();
+        launchUpgradeEvents(tubeUpgrades);
+        animation.catchUp();
+        launchPodEvents(city.pods.values());
+        computeEvents();
+    }
+
+    private void saveCheckpoint() {
+        String directory = System.getProperty(Checkpoint.SYSTEM_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(directory, "month-" + currentMonth + ".ckpt");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                writeCheckpoint(out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void readTestCase(TestCase testCase) {
+        gameRatio = testCase.gameRatio;
+        simplifiedMode = testCase.simplifiedMode;
+        animation.setDetail(testCase.detail);
+        city.limits = testCase.limits;
+
+        numMonths = testCase.newBuildingsPerMonth.size();
+        gameManager.setMaxTurns(numMonths * city.limits.daysPerMonth + 1);
+        newBuildingsPerMonth = testCase.newBuildingsPerMonth;
+        addedResourcesPerMonth = testCase.addedResourcesPerMonth;
     }
 
     private boolean newMonth = true;
@@ -127,6 +263,8 @@ public class Referee extends AbstractReferee {
 
     @Override
     public void gameTurn(int turn) {
+        recordTurnTime();
+        phaseTimer.setTurn(turn);
         animation.reset();
         newBuildingsforView.clear();
 
@@ -149,41 +287,35 @@ public class Referee extends AbstractReferee {
             monthScore = 0;
             currentDay = 0;
 
-            // Resources get updated at the end of the previous month
-            gameManager.getPlayer().sendInputLine(String.valueOf(city.resources));
-
-            gameManager.getPlayer().sendInputLine(String.valueOf(city.tubes.size() + city.teleporters.size()));
-            for (Teleporter tp : city.teleporters.values()) {
-                gameManager.getPlayer().sendInputLine(tp.buildings.building1.id + " " + tp.buildings.building2.id + " 0");
-            }
-            for (Tube tube : city.tubes.values()) {
-                gameManager.getPlayer().sendInputLine(tube.buildings.building1.id + " " + tube.buildings.building2.id + " " + tube.capacity);
-            }
-
-            gameManager.getPlayer().sendInputLine(String.valueOf(city.pods.size()));
-            for (TransportPod pod : city.pods.values()) {
-                gameManager.getPlayer().sendInputLine(pod.formatString());
-            }
-
-            gameManager.getPlayer().sendInputLine(String.valueOf(newBuildingsThisMonth.size()));
-            for (Building building : newBuildingsThisMonth) {
-                city.addBuilding(building);
-                gameManager.getPlayer().sendInputLine(building.formatString());
+            long time = phaseTimer.start();
+            if (inProcessAgent != null) {
+                addNewBuildings();
+                time = phaseTimer.lap(PhaseTimer.Phase.INPUT, time);
+            } else {
+                sendMonthInput();
+                time = phaseTimer.lap(PhaseTimer.Phase.INPUT, time);
+                gameManager.getPlayer().execute();
             }
 
-            gameManager.getPlayer().execute();
-
             launchBuildingEvents(newBuildingsforView);
             animation.catchUp();
 
             try {
-                List<String> outputs = gameManager.getPlayer().getOutputs();
+                List<String> outputs = inProcessAgent != null ? playInProcess() : gameManager.getPlayer().getOutputs();
+                time = phaseTimer.lap(PhaseTimer.Phase.AGENT, time);
+                if (outputs == null) {
+                    // The in-process agent failed, the game is already lost
+                    return;
+                }
                 if (outputs.size() != 1) {
                     gameManager.loseGame("You did not send 1 output line during your turn.");
                     return;
                 }
 
                 String outputLine = outputs.get(0);
+                if (recordedOutputs != null) {
+                    recordedOutputs.add(outputLine);
+                }
                 if (outputLine.equals("")) {
                     gameManager.loseGame("Your code sent an empty line. Please use a WAIT action if you don't want to make any actions this turn.");
                     return;
@@ -194,10 +326,10 @@ public class Referee extends AbstractReferee {
                 List<TeleporterBuild> teleporterBuilds = new ArrayList<>();
                 int nWarnings = 0;
 
-                for (String rawAction : outputLine.split(";")) {
-                    String strippedAction = rawAction.trim();
+                actionReader.reset(outputLine);
+                while (actionReader.nextAction()) {
                     try {
-                        boolean actionValid = processAction(strippedAction, tubeBuilds, tubeUpgrades, teleporterBuilds);
+                        boolean actionValid = processAction(tubeBuilds, tubeUpgrades, teleporterBuilds);
                         if (!actionValid) {
                             return;
                         }
@@ -216,6 +348,7 @@ public class Referee extends AbstractReferee {
                 } else if (nWarnings > Constants.MAX_WARNINGS_DISPLAYED + 1) {
                     gameManager.addToGameSummary("... and " + (nWarnings - Constants.MAX_WARNINGS_DISPLAYED) + " other warnings not displayed.");
                 }
+                time = phaseTimer.lap(PhaseTimer.Phase.ACTIONS, time);
 
                 launchNewTeleporterEvents(teleporterBuilds);
                 animation.catchUp();
@@ -223,8 +356,10 @@ public class Referee extends AbstractReferee {
                 animation.catchUp();
                 launchUpgradeEvents(tubeUpgrades);
                 animation.catchUp();
+                phaseTimer.lap(PhaseTimer.Phase.ACTION_EVENTS, time);
 
             } catch (TimeoutException e) {
+                timedOut = true;
             	if (totalScore > 0) {
             		gameManager.winGame("Your code timed out, but the score before timeout is still counted. Your final score is " + totalScore);
             	} else {
@@ -232,6 +367,9 @@ public class Referee extends AbstractReferee {
             	}
             }
 
+            if (travelManager.trace != null) {
+                travelManager.trace.startMonth(currentMonth);
+            }
             travelManager.newMonth();
 
         }
@@ -243,7 +381,7 @@ public class Referee extends AbstractReferee {
         }
         astronautsWereEmpty = travelManager.astronauts.isEmpty();
 
-        if (currentDay >= Constants.DAYS_PER_MONTH) {
+        if (currentDay >= city.limits.daysPerMonth) {
             newMonth = true;
         }
 
@@ -262,10 +400,68 @@ public class Referee extends AbstractReferee {
                 int newResourcesThisMonth = addedResourcesPerMonth.get(currentMonth);
                 newBuildingsThisMonth = newBuildingsPerMonth.get(currentMonth);
                 city.resources += newResourcesThisMonth;
+                saveCheckpoint();
             }
         }
 
+        long time = phaseTimer.start();
         computeEvents();
+        phaseTimer.lap(PhaseTimer.Phase.FRAME_EVENTS, time);
+    }
+
+    /**
+     * @return the output line matching the actions of the in-process agent, null if it failed
+     * @throws TimeoutException when the replayed game timed out at this month
+     */
+    private List<String> playInProcess() throws TimeoutException {
+        List<String> actions;
+        try {
+            actions = inProcessAgent.play(MonthState.of(city, newBuildingsThisMonth));
+        } catch (RuntimeException e) {
+            gameManager.loseGame("Your agent failed: " + e);
+            return null;
+        }
+        if (actions == null) {
+            if (replay != null && replay.timedOut) {
+                throw new TimeoutException();
+            }
+            return List.of();
+        }
+        return List.of(actions.isEmpty() ? Constants.WAIT_ACTION : String.join(";", actions));
+    }
+
+    private void addNewBuildings() {
+        for (Building building : newBuildingsThisMonth) {
+            city.addBuilding(building);
+        }
+    }
+
+    private void sendMonthInput() {
+        // Tubes, teleporters and pods keep their encoded line between months. One input line per call: the engine counts input entries
+        // and the runner reads that many lines.
+        Player player = gameManager.getPlayer();
+
+        // Resources get updated at the end of the previous month
+        player.sendInputLine(String.valueOf(city.resources));
+
+        player.sendInputLine(String.valueOf(city.tubes.size() + city.teleporters.size()));
+        for (Teleporter tp : city.teleporters.values()) {
+            player.sendInputLine(tp.formatString());
+        }
+        for (Tube tube : city.tubes.values()) {
+            player.sendInputLine(tube.formatString());
+        }
+
+        player.sendInputLine(String.valueOf(city.pods.size()));
+        for (TransportPod pod : city.pods.values()) {
+            player.sendInputLine(pod.formatString());
+        }
+
+        player.sendInputLine(String.valueOf(newBuildingsThisMonth.size()));
+        for (Building building : newBuildingsThisMonth) {
+            city.addBuilding(building);
+            player.sendInputLine(building.formatString());
+        }
     }
 
     private void computeEvents() {
@@ -279,10 +475,12 @@ public class Referee extends AbstractReferee {
         );
 
         if (simplifiedMode) {
+            // The skipped events were not emitted, see Animation.Detail
             int lastNotSkippedEventEnd = 0;
-            for (EventData event : getViewerEvents()) {
-                if (!Constants.SIMPLIFIED_SKIPPED_EVENTS.contains(event.type) && event.animData.end > lastNotSkippedEventEnd) {
-                    lastNotSkippedEventEnd = event.animData.end;
+            EventView events = getViewerEvents();
+            for (int i = 0; i < events.size(); i++) {
+                if (events.end(i) > lastNotSkippedEventEnd) {
+                    lastNotSkippedEventEnd = events.end(i);
                 }
             }
             frameTime = Math.max(
@@ -295,99 +493,150 @@ public class Referee extends AbstractReferee {
 
     }
 
-    public List<EventData> getViewerEvents() {
+    public Animation.Detail getAnimationDetail() {
+        return animation.getDetail();
+    }
+
+    public EventView getViewerEvents() {
         return animation.getViewerEvents();
     }
 
     @Override
     public void onEnd() {
         gameManager.putMetadata("points", totalScore);
+        recordTurnTime();
+        if (turnMicros != null) {
+            gameManager.putMetadata("turnMicros", turnMicros.stream().map(String::valueOf).collect(Collectors.joining(" ")));
+        }
+        if (phaseTimer.isEnabled()) {
+            gameManager.putMetadata("phaseTimes", phaseTimer.toJson());
+        }
+        if (replay != null) {
+            gameManager.putMetadata("recordedPoints", replay.recordedScore);
+            if (replay.recordedScore != totalScore) {
+                gameManager.addToGameSummary("Replay score " + totalScore + " differs from the recorded score " + replay.recordedScore + ".");
+            }
+        }
+        if (travelManager.trace != null) {
+            travelManager.trace.close();
+        }
+        if (recordedOutputs != null) {
+            try {
+                Recording.write(Path.of(System.getProperty(Recording.SYSTEM_PROPERTY)), testCaseInput, recordedOutputs, totalScore, timedOut);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Ends the time of the previous turn, which includes the frame serialized after it by the view module.
+     */
+    private void recordTurnTime() {
+        if (turnMicros == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (turnStart != 0) {
+            turnMicros.add((int) ((now - turnStart) / 1000));
+        }
+        turnStart = now;
     }
 
-    private boolean processAction(String action, List<TubeBuild> tubeBuilds, List<TubeUpgrade> tubeUpgrades, List<TeleporterBuild> teleporterBuilds) {
-        String[] actionArray = action.split(" ");
-        if (actionArray[0].equals(Constants.TUBE_ACTION)) {
-            if (actionArray.length != 3) {
-                gameManager.loseGame("Invalid format: expected " + Constants.TUBE_ACTION + " [buildingId1] [buildingId2], but received " + action);
+    /**
+     * A replay plays recorded outputs, without frames.
+     */
+    public boolean isReplay() {
+        return replay != null;
+    }
+
+    private boolean processAction(List<TubeBuild> tubeBuilds, List<TubeUpgrade> tubeUpgrades, List<TeleporterBuild> teleporterBuilds) {
+        if (actionReader.commandIs(Constants.TUBE_ACTION)) {
+            if (actionReader.getTokenCount() != 3) {
+                gameManager.loseGame(
+                    "Invalid format: expected " + Constants.TUBE_ACTION + " [buildingId1] [buildingId2], but received " + actionReader.getAction()
+                );
                 return false;
             }
 
             try {
-                int buildingId1 = Integer.parseInt(actionArray[1]);
-                int buildingId2 = Integer.parseInt(actionArray[2]);
+                int buildingId1 = actionReader.nextInt();
+                int buildingId2 = actionReader.nextInt();
                 city.createTube(buildingId1, buildingId2);
 
                 double dist = City.euclideanDist(city.getBuildingById(buildingId1), city.getBuildingById(buildingId2));
                 tubeBuilds.add(new TubeBuild(buildingId1, buildingId2, dist));
 
             } catch (NumberFormatException e) {
-                gameManager.loseGame("Invalid integer value in " + action);
+                gameManager.loseGame("Invalid integer value in " + actionReader.getAction());
                 return false;
             }
-        } else if (actionArray[0].equals(Constants.UPGRADE_ACTION)) {
-            if (actionArray.length != 3) {
-                gameManager.loseGame("Invalid format: expected " + Constants.UPGRADE_ACTION + " [buildingId1] [buildingId2], but received " + action);
+        } else if (actionReader.commandIs(Constants.UPGRADE_ACTION)) {
+            if (actionReader.getTokenCount() != 3) {
+                gameManager.loseGame(
+                    "Invalid format: expected " + Constants.UPGRADE_ACTION + " [buildingId1] [buildingId2], but received " + actionReader.getAction()
+                );
                 return false;
             }
 
             try {
-                int buildingId1 = Integer.parseInt(actionArray[1]);
-                int buildingId2 = Integer.parseInt(actionArray[2]);
+                int buildingId1 = actionReader.nextInt();
+                int buildingId2 = actionReader.nextInt();
                 city.upgradeTube(buildingId1, buildingId2);
                 tubeUpgrades.add(new TubeUpgrade(buildingId1, buildingId2));
 
             } catch (NumberFormatException e) {
-                gameManager.loseGame("Invalid integer value in " + action);
+                gameManager.loseGame("Invalid integer value in " + actionReader.getAction());
                 return false;
             }
-        } else if (actionArray[0].equals(Constants.TELEPORT_ACTION)) {
-            if (actionArray.length != 3) {
+        } else if (actionReader.commandIs(Constants.TELEPORT_ACTION)) {
+            if (actionReader.getTokenCount() != 3) {
                 gameManager
-                    .loseGame("Invalid format: expected " + Constants.TELEPORT_ACTION + " [buildingId1] [buildingId2], but received " + action);
+                    .loseGame(
+                        "Invalid format: expected " + Constants.TELEPORT_ACTION + " [buildingId1] [buildingId2], but received "
+                            + actionReader.getAction()
+                    );
                 return false;
             }
 
             try {
-                int buildingId1 = Integer.parseInt(actionArray[1]);
-                int buildingId2 = Integer.parseInt(actionArray[2]);
+                int buildingId1 = actionReader.nextInt();
+                int buildingId2 = actionReader.nextInt();
                 city.createTeleporter(buildingId1, buildingId2);
                 teleporterBuilds.add(new TeleporterBuild(buildingId1, buildingId2));
 
             } catch (NumberFormatException e) {
-                gameManager.loseGame("Invalid integer value in " + action);
+                gameManager.loseGame("Invalid integer value in " + actionReader.getAction());
             }
-        } else if (actionArray[0].equals(Constants.POD_ACTION)) {
-            if (actionArray.length < 3) {
+        } else if (actionReader.commandIs(Constants.POD_ACTION)) {
+            if (actionReader.getTokenCount() < 3) {
                 gameManager.loseGame(
                     "Invalid format: expected " + Constants.POD_ACTION + " [podId] [buildingId1] [buildingId2] [buildingId3] ... , but received "
-                        + action
+                        + actionReader.getAction()
                 );
                 return false;
             }
             try {
-                int podId = Integer.parseInt(actionArray[1]);
-                ArrayList<Integer> routeBuildingIds = new ArrayList<Integer>();
-                for (int i = 2; i < actionArray.length; i++) {
-                    routeBuildingIds.add(Integer.valueOf(actionArray[i]));
-                }
-                city.createPod(podId, routeBuildingIds);
+                int podId = actionReader.nextInt();
+                int routeLength = actionReader.readRemainingInts();
+                city.createPod(podId, actionReader.getInts(), routeLength);
             } catch (NumberFormatException e) {
-                gameManager.loseGame("Invalid integer value in " + action);
+                gameManager.loseGame("Invalid integer value in " + actionReader.getAction());
                 return false;
             }
-        } else if (actionArray[0].equals(Constants.DESTROY_ACTION)) {
-            if (actionArray.length != 2) {
-                gameManager.loseGame("Invalid format: expected " + Constants.DESTROY_ACTION + " [podId], but received " + action);
+        } else if (actionReader.commandIs(Constants.DESTROY_ACTION)) {
+            if (actionReader.getTokenCount() != 2) {
+                gameManager.loseGame("Invalid format: expected " + Constants.DESTROY_ACTION + " [podId], but received " + actionReader.getAction());
                 return false;
             }
             try {
-                int podId = Integer.parseInt(actionArray[1]);
+                int podId = actionReader.nextInt();
                 city.deletePod(podId);
             } catch (NumberFormatException e) {
-                gameManager.loseGame("Invalid integer value in " + action);
+                gameManager.loseGame("Invalid integer value in " + actionReader.getAction());
                 return false;
             }
-        } else if (actionArray[0].equals(Constants.WAIT_ACTION) || actionArray[0].length() == 0) {
+        } else if (actionReader.commandIs(Constants.WAIT_ACTION) || actionReader.isEmptyAction()) {
             // Do nothing
         } else {
             gameManager
@@ -395,7 +644,7 @@ public class Referee extends AbstractReferee {
                     String.format(
                         "Expected action: %s but received %s",
                         Arrays.asList(Constants.ACTIONS).stream().collect(Collectors.joining(" | ")),
-                        actionArray[0]
+                        actionReader.getCommand()
                     )
                 );
             return false;
@@ -405,21 +654,32 @@ public class Referee extends AbstractReferee {
 
     private void launchNewTeleporterEvents(List<TeleporterBuild> builds) {
         for (TeleporterBuild build : builds) {
-            EventData e = new EventData();
-            e.type = EventData.NEW_TELEPORTER;
-            e.params = new int[] { build.buildingId1(), build.buildingId2() };
+            animation.newEvent(EventData.NEW_TELEPORTER);
+            animation.addParam(build.buildingId1());
+            animation.addParam(build.buildingId2());
 
-            animation.startAnim(e, Animation.WHOLE);
+            animation.startAnim(Animation.WHOLE);
+        }
+    }
+
+    private void launchPodEvents(Collection<TransportPod> pods) {
+        for (TransportPod pod : pods) {
+            animation.newEvent(EventData.BUILD_POD);
+            animation.addParam(pod.id);
+            for (Building stop : pod.route) {
+                animation.addParam(stop.id);
+            }
+
+            animation.startAnim(Animation.WHOLE);
         }
     }
 
     private void launchBuildingEvents(List<Building> newBuildings) {
         for (Building building : newBuildings) {
-            EventData e = new EventData();
-            e.type = EventData.NEW_BUILDING;
-            e.params = new int[] { building.id };
+            animation.newEvent(EventData.NEW_BUILDING);
+            animation.addParam(building.id);
 
-            animation.startAnim(e, Animation.WHOLE);
+            animation.startAnim(Animation.WHOLE);
         }
     }
 
@@ -434,27 +694,28 @@ public class Referee extends AbstractReferee {
             });
 
         for (List<Integer> buildings : upgradeCountByTube.keySet()) {
-            EventData e = new EventData();
-            e.type = EventData.UPGRADE_TUBE;
-            e.params = new int[] { buildings.get(0), buildings.get(1), upgradeCountByTube.get(buildings) };
+            animation.newEvent(EventData.UPGRADE_TUBE);
+            animation.addParam(buildings.get(0));
+            animation.addParam(buildings.get(1));
+            animation.addParam(upgradeCountByTube.get(buildings));
 
-            animation.startAnim(e, Animation.HALF);
+            animation.startAnim(Animation.HALF);
         }
 
     }
 
     private void launchBuildEvents(List<TubeBuild> tubeBuilds) {
         for (TubeBuild tubeBuild : tubeBuilds) {
-            EventData e = new EventData();
-            e.type = EventData.BUILD_TUBE;
-            e.params = new int[] { tubeBuild.buildingId1(), tubeBuild.buildingId2() };
+            animation.newEvent(EventData.BUILD_TUBE);
+            animation.addParam(tubeBuild.buildingId1());
+            animation.addParam(tubeBuild.buildingId2());
 
             double dist = City.euclideanDist(
                 city.getBuildingById(tubeBuild.buildingId1()),
                 city.getBuildingById(tubeBuild.buildingId2())
             );
             double p = dist / 20d;
-            animation.startAnim(e, (int) (Animation.TENTH * p));
+            animation.startAnim((int) (Animation.TENTH * p));
         }
     }
 
@@ -467,19 +728,24 @@ public class Referee extends AbstractReferee {
     }
 
     public int getMaxX() {
-        return newBuildingsPerMonth.stream().flatMap(arr -> arr.stream()).mapToInt(b -> b.x).max().getAsInt();
+        return allBuildings().mapToInt(b -> b.x).max().getAsInt();
     }
 
     public int getMaxY() {
-        return newBuildingsPerMonth.stream().flatMap(arr -> arr.stream()).mapToInt(b -> b.y).max().getAsInt();
+        return allBuildings().mapToInt(b -> b.y).max().getAsInt();
     }
 
     public int getMinX() {
-        return newBuildingsPerMonth.stream().flatMap(arr -> arr.stream()).mapToInt(b -> b.x).min().getAsInt();
+        return allBuildings().mapToInt(b -> b.x).min().getAsInt();
     }
 
     public int getMinY() {
-        return newBuildingsPerMonth.stream().flatMap(arr -> arr.stream()).mapToInt(b -> b.y).min().getAsInt();
+        return allBuildings().mapToInt(b -> b.y).min().getAsInt();
+    }
+
+    private Stream<Building> allBuildings() {
+        // A restored game only keeps the months to come, the buildings of the months already played are in the city
+        return Stream.concat(city.buildings.values().stream(), newBuildingsPerMonth.stream().flatMap(arr -> arr.stream()));
     }
 
 }
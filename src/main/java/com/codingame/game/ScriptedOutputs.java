@@ -0,0 +1,46 @@
+package com.codingame.game;
+
+import java.util.List;
+
+/**
+ * Output lines played by the referee in place of the agent's, one per month, then WAIT. Handed over by the code starting the game in the
+ * same JVM, such as the referee daemon, without any file.
+ * <p>
+ * The lines are bound to the thread calling {@link #begin(List)} and inherited by the threads it starts, the referee's among them, so
+ * concurrent games each play their own lines. They take the place of any {@link InProcessAgent}.
+ */
+public class ScriptedOutputs implements InProcessAgent {
+    private static final InheritableThreadLocal<List<String>> OUTPUTS = new InheritableThreadLocal<>();
+
+    private final List<String> outputs;
+    private int month;
+
+    private ScriptedOutputs(List<String> outputs) {
+        this.outputs = outputs;
+    }
+
+    /**
+     * Plays the given lines in the games started by this thread until {@link #end()}. The runner must be created after this call.
+     */
+    public static void begin(List<String> outputs) {
+        OUTPUTS.set(List.copyOf(outputs));
+    }
+
+    public static void end() {
+        OUTPUTS.remove();
+    }
+
+    /**
+     * @return the lines of the game starting on this thread, null when the agent plays
+     */
+    static ScriptedOutputs current() {
+        List<String> outputs = OUTPUTS.get();
+        return outputs == null ? null : new ScriptedOutputs(outputs);
+    }
+
+    @Override
+    public List<String> play(MonthState state) {
+        // A whole line is a valid action list once joined back
+        return List.of(month < outputs.size() ? outputs.get(month++) : Constants.WAIT_ACTION);
+    }
+}
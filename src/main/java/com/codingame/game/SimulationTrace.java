@@ -0,0 +1,199 @@
+package com.codingame.game;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Binary trace of the astronaut and pod moves, for offline analysis of congestion and routing. Enabled with
+ * <code>-DmoonCity.trace=&lt;directory&gt;</code>, each game writes its own <code>&lt;test case hash&gt;-*.trace</code> file.
+ * <p>
+ * The simulation only copies each record into a ring buffer, a background thread drains it into a memory-mapped file. The simulation
+ * waits when the ring is full, no record is ever dropped.
+ * <p>
+ * The file is little-endian: a {@value #RECORD_SIZE}-byte header (magic, version, record size, record count), then fixed-width records:
+ *
+ * <pre>
+ * byte  kind       BOARDING, TELEPORT, ARRIVAL or POD_DEPARTURE
+ * byte  (unused)
+ * short day
+ * int   month
+ * int   astronaut  -1 for a pod departure
+ * int   workType   -1 for a pod departure
+ * int   pod        -1 for a teleport, or an arrival through a teleporter
+ * int   from       building id
+ * int   to         building id
+ * int   value      points of an arrival, capacity of the tube for a pod departure, 0 otherwise
+ * </pre>
+ *
+ * The file is mapped by regions and may be longer than its records, the record count of the header is the reference. See
+ * {@link TraceReader}.
+ */
+public class SimulationTrace {
+    public static final String SYSTEM_PROPERTY = "moonCity.trace";
+    public static final int MAGIC = 0x5254434D;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 32;
+
+    public static final byte BOARDING = 1;
+    public static final byte TELEPORT = 2;
+    public static final byte ARRIVAL = 3;
+    public static final byte POD_DEPARTURE = 4;
+
+    private static final int RECORD_INTS = 8;
+    private static final int RING_RECORDS = 1 << 14;
+    private static final int REGION_SIZE = 1 << 22;
+
+    private final int[] ring = new int[RING_RECORDS * RECORD_INTS];
+    // Records appended by the simulation, and records written to the file
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private long cachedHead;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private final FileChannel channel;
+    private final Thread writer;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int month;
+
+    private SimulationTrace(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0);
+        region.putInt(MAGIC).putShort((short) VERSION).putShort((short) RECORD_SIZE).putLong(0);
+        region.position(RECORD_SIZE);
+
+        writer = new Thread(this::drain, "moon-city-trace");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return null when the trace is not enabled
+     */
+    public static SimulationTrace fromSystemProperty(List<String> testCaseInput) {
+        String directory = System.getProperty(SYSTEM_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        try {
+            Files.createDirectories(Path.of(directory));
+            Path path = Files.createTempFile(Path.of(directory), String.format("%08x-", testCaseInput.hashCode()), ".trace");
+            return new SimulationTrace(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void startMonth(int month) {
+        this.month = month;
+    }
+
+    public void boarding(int day, Astronaut astronaut, int podId, Building from, Building to) {
+        append(BOARDING, day, astronaut.id, astronaut.workType, podId, from.id, to.id, 0);
+    }
+
+    public void teleport(int day, Astronaut astronaut, Building from, Building to) {
+        append(TELEPORT, day, astronaut.id, astronaut.workType, -1, from.id, to.id, 0);
+    }
+
+    /**
+     * @param podId -1 when the astronaut arrived through a teleporter
+     */
+    public void arrival(int day, Astronaut astronaut, int podId, Building from, Building to, int points) {
+        append(ARRIVAL, day, astronaut.id, astronaut.workType, podId, from.id, to.id, points);
+    }
+
+    public void podDeparture(int day, TransportPod pod, Building from, Building to, int tubeCapacity) {
+        append(POD_DEPARTURE, day, -1, -1, pod.id, from.id, to.id, tubeCapacity);
+    }
+
+    private void append(byte kind, int day, int astronaut, int workType, int pod, int from, int to, int value) {
+        long next = tail.get();
+        while (next - cachedHead >= RING_RECORDS) {
+            if (failure != null) {
+                throw new RuntimeException("The simulation trace could not be written", failure);
+            }
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+            cachedHead = head.get();
+        }
+        int i = (int) (next & (RING_RECORDS - 1)) * RECORD_INTS;
+        ring[i] = kind | day << 16;
+        ring[i + 1] = month;
+        ring[i + 2] = astronaut;
+        ring[i + 3] = workType;
+        ring[i + 4] = pod;
+        ring[i + 5] = from;
+        ring[i + 6] = to;
+        ring[i + 7] = value;
+        tail.lazySet(next + 1);
+    }
+
+    private void drain() {
+        try {
+            long written = 0;
+            while (true) {
+                // Closed first: once closed is seen, tail holds every record appended before close()
+                boolean done = closed;
+                long available = tail.get();
+                if (available == written) {
+                    if (done) {
+                        break;
+                    }
+                    LockSupport.parkNanos(100_000);
+                    continue;
+                }
+                for (; written < available; written++) {
+                    if (!region.hasRemaining()) {
+                        map(regionStart + REGION_SIZE);
+                    }
+                    int i = (int) (written & (RING_RECORDS - 1)) * RECORD_INTS;
+                    region.put((byte) ring[i]).put((byte) 0).putShort((short) (ring[i] >>> 16));
+                    for (int field = 1; field < RECORD_INTS; field++) {
+                        region.putInt(ring[i + field]);
+                    }
+                }
+                head.lazySet(written);
+            }
+            map(0);
+            region.putLong(8, written);
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the remaining records and the header.
+     */
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (failure != null) {
+            throw new RuntimeException("The simulation trace could not be written", failure);
+        }
+    }
+}
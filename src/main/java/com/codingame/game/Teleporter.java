@@ -3,6 +3,8 @@ package com.codingame.game;
 public class Teleporter {
     public BuildingPair buildings;
 
+    private String formatted;
+
     public Teleporter(BuildingPair buildings) {
         this.buildings = buildings;
     }
@@ -10,4 +12,11 @@ public class Teleporter {
     public Teleporter(Building building1, Building building2) {
         this.buildings = new BuildingPair(building1, building2);
     }
+
+    public String formatString() {
+        if (formatted == null) {
+            formatted = buildings.building1.id + " " + buildings.building2.id + " 0";
+        }
+        return formatted;
+    }
 }
\ No newline at end of file
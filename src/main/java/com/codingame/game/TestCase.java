@@ -0,0 +1,97 @@
+package com.codingame.game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codingame.event.Animation;
+
+/**
+ * The content of a test case: its optional headers, then the resources and the buildings added each month. Buildings are numbered in the
+ * order of the test case, and get the tube slots of its limits.
+ */
+public class TestCase {
+    public Integer gameRatio;
+    public boolean simplifiedMode;
+    public Animation.Detail detail = Animation.Detail.FULL;
+    public GameLimits limits = new GameLimits();
+    public ArrayList<ArrayList<Building>> newBuildingsPerMonth = new ArrayList<>();
+    public ArrayList<Integer> addedResourcesPerMonth = new ArrayList<>();
+
+    /**
+     * @param testCaseInput the lines of the test case, or a single <code>file &lt;path&gt;</code> line, see {@link TestCaseReader}
+     */
+    public static TestCase read(List<String> testCaseInput) throws IOException {
+        try (TestCaseReader reader = TestCaseReader.open(testCaseInput)) {
+            TestCase testCase = new TestCase();
+            testCase.read(reader);
+            return testCase;
+        }
+    }
+
+    private void read(TestCaseReader reader) throws IOException {
+        int buildingIdIncrementer = 0;
+
+        if (reader.peek() == 'x') {
+            gameRatio = Integer.valueOf(reader.nextWord().substring(1));
+            reader.nextLine();
+        }
+
+        if (reader.peek() == 's') {
+            String header = reader.nextWord();
+            if (!header.startsWith("simplified")) {
+                throw new NumberFormatException("For input string: \"" + header + "\"");
+            }
+            simplifiedMode = true;
+            // "simplified summary" replaces the astronaut traffic by one summary per day, for huge maps
+            boolean summary = reader.hasMoreOnLine() && reader.nextWord().equals(Referee.SUMMARY_HEADER);
+            detail = summary ? Animation.Detail.SUMMARY : Animation.Detail.SIMPLIFIED;
+            reader.nextLine();
+        }
+
+        if (reader.peek() == 'l') {
+            String header = reader.nextWord();
+            if (!header.equals(GameLimits.HEADER)) {
+                throw new NumberFormatException("For input string: \"" + header + "\"");
+            }
+            while (reader.hasMoreOnLine()) {
+                String[] limit = reader.nextWord().split("=");
+                if (limit.length != 2) {
+                    throw new IllegalArgumentException("Invalid limit " + String.join("=", limit) + ", expected key=value");
+                }
+                limits.set(limit[0], Integer.parseInt(limit[1]));
+            }
+            reader.nextLine();
+        }
+
+        int numMonths = reader.nextInt();
+        reader.nextLine();
+
+        for (int month = 0; month < numMonths; month++) {
+            int numBuildingsBuilt = reader.nextInt();
+            int newResources = reader.nextInt();
+            reader.nextLine();
+            addedResourcesPerMonth.add(newResources);
+            ArrayList<Building> newBuildingsThisMonth = new ArrayList<Building>(numBuildingsBuilt);
+            for (int i = 0; i < numBuildingsBuilt; i++) {
+                int buildingType = reader.nextInt();
+                int x = reader.nextInt();
+                int y = reader.nextInt();
+                reader.nextLine();
+                if (buildingType == Constants.LANDING_BUILDING_TYPE) {
+                    int[] astronautTypes = reader.nextIntLine();
+                    Building newBuilding = new LandingBuilding(buildingIdIncrementer, x, y, astronautTypes);
+                    newBuilding.remainingTubeSlots = limits.maxTubesPerBuilding;
+                    newBuildingsThisMonth.add(newBuilding);
+                    buildingIdIncrementer++;
+                } else {
+                    Building newBuilding = new WorkBuilding(buildingIdIncrementer, x, y, buildingType);
+                    newBuilding.remainingTubeSlots = limits.maxTubesPerBuilding;
+                    newBuildingsThisMonth.add(newBuilding);
+                    buildingIdIncrementer++;
+                }
+            }
+            newBuildingsPerMonth.add(newBuildingsThisMonth);
+        }
+    }
+}
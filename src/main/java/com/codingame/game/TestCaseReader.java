@@ -0,0 +1,205 @@
+package com.codingame.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a test case character by character and parses integers in place, without creating a String per line or per token.
+ * <p>
+ * A test case made of a single <code>file &lt;path&gt;</code> line is read from disk instead: memory-mapped, or streamed through gzip when
+ * the path ends with <code>.gz</code>.
+ */
+public abstract class TestCaseReader implements Closeable {
+    public static final String FILE_HEADER = "file";
+
+    private static final int NONE = -2;
+    private int peeked = NONE;
+    private int[] lineBuffer = new int[64];
+
+    protected abstract int read() throws IOException;
+
+    public static TestCaseReader open(List<String> testCaseInput) throws IOException {
+        if (!testCaseInput.isEmpty() && testCaseInput.get(0).startsWith(FILE_HEADER + " ")) {
+            return open(Path.of(testCaseInput.get(0).substring(FILE_HEADER.length() + 1).trim()));
+        }
+        return new LinesReader(testCaseInput);
+    }
+
+    public static TestCaseReader open(Path path) throws IOException {
+        if (path.toString().endsWith(".gz")) {
+            return new StreamReader(new GZIPInputStream(Files.newInputStream(path), StreamReader.BUFFER_SIZE));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int peek() throws IOException {
+        if (peeked == NONE) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        peeked = NONE;
+        return c;
+    }
+
+    private void skipBlanks() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\r') {
+            next();
+            c = peek();
+        }
+    }
+
+    public boolean hasMoreOnLine() throws IOException {
+        skipBlanks();
+        int c = peek();
+        return c != '\n' && c != -1;
+    }
+
+    public void nextLine() throws IOException {
+        int c = next();
+        while (c != '\n' && c != -1) {
+            c = next();
+        }
+    }
+
+    /**
+     * Reads the next blank-separated word of the current line, only meant for the test case headers.
+     */
+    public String nextWord() throws IOException {
+        skipBlanks();
+        StringBuilder sb = new StringBuilder();
+        int c = peek();
+        while (c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != -1) {
+            sb.append((char) next());
+            c = peek();
+        }
+        return sb.toString();
+    }
+
+    public int nextInt() throws IOException {
+        skipBlanks();
+        boolean negative = false;
+        if (peek() == '-' || peek() == '+') {
+            negative = next() == '-';
+        }
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Expected an integer but found " + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (next() - '0');
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Integer value out of range");
+            }
+            c = peek();
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer value out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads every integer left on the current line and moves to the next one.
+     */
+    public int[] nextIntLine() throws IOException {
+        int count = 0;
+        while (hasMoreOnLine()) {
+            if (count == lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, count * 2);
+            }
+            lineBuffer[count++] = nextInt();
+        }
+        nextLine();
+        return Arrays.copyOf(lineBuffer, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    private static class LinesReader extends TestCaseReader {
+        private final List<String> lines;
+        private int lineIdx;
+        private int charIdx;
+
+        LinesReader(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        protected int read() {
+            if (lineIdx >= lines.size()) {
+                return -1;
+            }
+            String line = lines.get(lineIdx);
+            if (charIdx < line.length()) {
+                return line.charAt(charIdx++);
+            }
+            lineIdx++;
+            charIdx = 0;
+            return '\n';
+        }
+    }
+
+    private static class MappedReader extends TestCaseReader {
+        private final MappedByteBuffer buffer;
+
+        MappedReader(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+    }
+
+    private static class StreamReader extends TestCaseReader {
+        static final int BUFFER_SIZE = 1 << 16;
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int length;
+        private int position;
+
+        StreamReader(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        protected int read() throws IOException {
+            if (position == length) {
+                length = in.read(buffer);
+                position = 0;
+                if (length <= 0) {
+                    length = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.codingame.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scans a {@link SimulationTrace} file through read-only mappings of a few megabytes, one record at a time:
+ *
+ * <pre>
+ * try (TraceReader trace = TraceReader.open(path)) {
+ *     while (trace.next()) {
+ *         if (trace.kind() == SimulationTrace.ARRIVAL) {
+ *             points += trace.value();
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public class TraceReader implements Closeable {
+    private static final int REGION_RECORDS = 1 << 17;
+
+    private final FileChannel channel;
+    private final long recordCount;
+    private MappedByteBuffer region;
+    private long regionFirstRecord;
+    private long record = -1;
+    private int offset;
+
+    private TraceReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SimulationTrace.RECORD_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != SimulationTrace.MAGIC) {
+            throw new IOException("Not a simulation trace");
+        }
+        if (header.getShort(4) != SimulationTrace.VERSION || header.getShort(6) != SimulationTrace.RECORD_SIZE) {
+            throw new IOException("Unsupported trace version " + header.getShort(4));
+        }
+        recordCount = header.getLong(8);
+    }
+
+    public static TraceReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new TraceReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false at the end of the trace
+     */
+    public boolean next() throws IOException {
+        if (record + 1 >= recordCount) {
+            return false;
+        }
+        record++;
+        if (region == null || record - regionFirstRecord >= REGION_RECORDS) {
+            regionFirstRecord = record;
+            long records = Math.min(REGION_RECORDS, recordCount - record);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, (1 + record) * SimulationTrace.RECORD_SIZE, records * SimulationTrace.RECORD_SIZE);
+            region.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        offset = (int) (record - regionFirstRecord) * SimulationTrace.RECORD_SIZE;
+        return true;
+    }
+
+    public byte kind() {
+        return region.get(offset);
+    }
+
+    public int day() {
+        return region.getShort(offset + 2);
+    }
+
+    public int month() {
+        return region.getInt(offset + 4);
+    }
+
+    public int astronaut() {
+        return region.getInt(offset + 8);
+    }
+
+    public int workType() {
+        return region.getInt(offset + 12);
+    }
+
+    public int pod() {
+        return region.getInt(offset + 16);
+    }
+
+    public int from() {
+        return region.getInt(offset + 20);
+    }
+
+    public int to() {
+        return region.getInt(offset + 24);
+    }
+
+    public int value() {
+        return region.getInt(offset + 28);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
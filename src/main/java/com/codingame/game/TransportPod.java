@@ -8,10 +8,12 @@ public class TransportPod implements Comparable<TransportPod> {
     public int currentIndex;
     public int remainingCapacity;
 
-    public TransportPod(int id, ArrayList<Building> route) {
+    private String formatted;
+
+    public TransportPod(int id, ArrayList<Building> route, int daysPerMonth) {
         this.id = id;
-        if (route.size() > Constants.DAYS_PER_MONTH) {
-        	this.route = new ArrayList<>(route.subList(0, Constants.DAYS_PER_MONTH + 1)); // Trim to remove unreachable stops
+        if (route.size() > daysPerMonth) {
+        	this.route = new ArrayList<>(route.subList(0, daysPerMonth + 1)); // Trim to remove unreachable stops
         } else {
         	this.route = route;
         }
@@ -51,12 +53,16 @@ public class TransportPod implements Comparable<TransportPod> {
     }
     
     public String formatString() {
-    	StringBuilder sb = new StringBuilder();
-    	sb.append(id).append(" ").append(route.size());
-    	for (Building b : route) {
-    		sb.append(" ").append(b.id);
-    	}
-    	return sb.toString();
+        // The route never changes once the pod is built
+        if (formatted == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(id).append(" ").append(route.size());
+            for (Building b : route) {
+                sb.append(" ").append(b.id);
+            }
+            formatted = sb.toString();
+        }
+        return formatted;
     }
 
     @Override
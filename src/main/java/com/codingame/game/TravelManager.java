@@ -5,10 +5,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -24,6 +26,9 @@ public class TravelManager {
     HashMap<Building, HashMap<Integer, Integer>> precomputedClosestTypes;
     HashMap<Building, Integer> numAstronautsAllocated;
     Animation animation;
+    // Only set with -DmoonCity.trace=<directory>, see SimulationTrace
+    SimulationTrace trace;
+    PhaseTimer timer = PhaseTimer.DISABLED;
 
     public TravelManager(City city, Animation animation) {
         this.city = city;
@@ -106,19 +111,22 @@ public class TravelManager {
 
     public void newMonth() {
         // Precompute city shortest paths for astronaut navigation
+        long time = timer.start();
         precomputedClosestTypes = computeClosestBuildingTypes();
+        time = timer.lap(PhaseTimer.Phase.DISTANCES, time);
 
         // Spawn all astronauts
         astronauts = new HashSet<Astronaut>();
+        // Ids follow building order then arrival order, which is also the boarding priority
+        int astronautId = 0;
         for (int buildingId : city.buildings.keySet()) {
             Building building = city.buildings.get(buildingId);
             if (building.buildingType == Constants.LANDING_BUILDING_TYPE) {
                 List<Astronaut> arriving = new ArrayList<Astronaut>();
                 LandingBuilding landingPad = (LandingBuilding) building;
-                for (int i = 0; i < landingPad.astronautTypes.size(); i++) {
-                    int astronautType = landingPad.astronautTypes.get(i);
-                    int astronautId = Constants.ASTRONAUT_ID_MULT * building.id + i;
-                    arriving.add(new Astronaut(astronautId, building, astronautType));
+                for (int i = 0; i < landingPad.astronautTypes.length; i++) {
+                    int astronautType = landingPad.astronautTypes[i];
+                    arriving.add(new Astronaut(astronautId++, building, astronautType));
                 }
                 astronauts.addAll(arriving);
                 launchArrivalEvent(landingPad, arriving);
@@ -138,18 +146,29 @@ public class TravelManager {
         for (Building building : city.buildings.values()) {
             numAstronautsAllocated.put(building, 0);
         }
+        timer.lap(PhaseTimer.Phase.SPAWN, time);
     }
 
     private void launchArrivalEvent(LandingBuilding landingPad, List<Astronaut> astronauts) {
-        EventData e = new EventData();
-        e.type = EventData.ARRIVAL;
-        e.params = new int[astronauts.stream().mapToInt(a -> a.workType).max().orElse(0) + 1];
+        if (!animation.emits(EventData.ARRIVAL)) {
+            animation.startSkippedAnim(Animation.WHOLE * 2);
+            animation.wait(Animation.TENTH);
+            return;
+        }
+        // The landing pad, then the astronaut count of each work type
+        animation.newEvent(EventData.ARRIVAL);
+        animation.addParam(landingPad.id);
+        int maxWorkType = astronauts.stream().mapToInt(a -> a.workType).max().orElse(0);
+        for (int workType = 1; workType <= maxWorkType; workType++) {
+            animation.addParam(0);
+        }
         for (Astronaut a : astronauts) {
-            e.params[a.workType] += 1;
+            if (a.workType > 0) {
+                animation.addToParam(a.workType, 1);
+            }
         }
-        e.params[0] = landingPad.id;
 
-        animation.startAnim(e, Animation.WHOLE * 2);
+        animation.startAnim(Animation.WHOLE * 2);
 
         animation.wait(Animation.TENTH);
     }
@@ -164,11 +183,14 @@ public class TravelManager {
     public Map<Integer, PodTransport> podTransport = new HashMap<>();
 
     public int simulateDay(int currentDay) {
+        long time = timer.start();
         nothingMoved = true;
         teleports.clear();
         podTransport.clear();
 
         int dayScore = 0;
+        // Astronauts who left and who arrived, by building id, only counted for the DAY_SUMMARY event
+        TreeMap<Integer, int[]> traffic = animation.emits(EventData.DAY_SUMMARY) ? new TreeMap<>() : null;
 
         Objects.requireNonNull(astronauts);
 
@@ -184,16 +206,19 @@ public class TravelManager {
                     astronaut.currentBuilding = otherBuilding;
                     teleports.add(new TeleportTransport(astronaut.workType, tp.buildings));
                     nothingMoved = false;
+                    if (trace != null) {
+                        trace.teleport(currentDay, astronaut, currentBuilding, otherBuilding);
+                    }
 
                     if (astronaut.currentBuilding.buildingType == astronaut.workType) {
                         // Astronaut has reached their destination :)
-                        // Speed score
-                        dayScore += Constants.MAX_SPEED_POINTS - currentDay;
-                        // Diversity score
-                        int astronautsAlreadyAllocated = numAstronautsAllocated.get(astronaut.currentBuilding);
-                        numAstronautsAllocated.put(astronaut.currentBuilding, astronautsAlreadyAllocated + 1);
-                        if (Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated > 0) {
-                            dayScore += Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated;
+                        int points = arrivalPoints(astronaut.currentBuilding, currentDay);
+                        dayScore += points;
+                        if (trace != null) {
+                            trace.arrival(currentDay, astronaut, -1, currentBuilding, otherBuilding, points);
+                        }
+                        if (traffic != null) {
+                            traffic.computeIfAbsent(astronaut.currentBuilding.id, k -> new int[2])[1]++;
                         }
                         astronauts.remove(astronaut);
                     }
@@ -217,32 +242,38 @@ public class TravelManager {
 
         for (Integer fromId : teleportingAstronautsByBuilding.keySet()) {
             TeleportTransport tp = teleportByBuilding.get(fromId);
-            Map<Integer, Long> astronautCountByType = teleportingAstronautsByBuilding.get(fromId).stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-            EventData e = new EventData();
-            e.type = EventData.TRANSPORT_TP;
-            e.params = new int[4 + (astronautCountByType.size() * 2)];
-            e.params[0] = tp.fromId;
-            e.params[1] = tp.toId;
             int astronautCount = teleportingAstronautsByBuilding.get(fromId).size();
             // arbitrarily chose 100
             int timeBetweenTeleport = astronautCount < 100 ? Animation.TWENTIETH : Animation.HUNDREDTH;
             // arbitrarily chose 100
             double p = tp.distance / 100d;
             int tpTime = (int) (Animation.HALF * p);
-            e.params[2] = timeBetweenTeleport;
-            e.params[3] = tpTime;
-            int idx = 4;
+            if (traffic != null) {
+                traffic.computeIfAbsent(tp.fromId, k -> new int[2])[0] += astronautCount;
+            }
+            if (!animation.emits(EventData.TRANSPORT_TP)) {
+                animation.startSkippedAnim((astronautCount * timeBetweenTeleport) + tpTime);
+                continue;
+            }
+
+            Map<Integer, Long> astronautCountByType = teleportingAstronautsByBuilding.get(fromId).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+            animation.newEvent(EventData.TRANSPORT_TP);
+            animation.addParam(tp.fromId);
+            animation.addParam(tp.toId);
+            animation.addParam(timeBetweenTeleport);
+            animation.addParam(tpTime);
             for (Integer type : astronautCountByType.keySet()) {
-                e.params[idx++] = type;
-                e.params[idx++] = astronautCountByType.get(type).intValue();
+                animation.addParam(type);
+                animation.addParam(astronautCountByType.get(type).intValue());
             }
             int animationTime = (astronautCount * timeBetweenTeleport) + tpTime;
-            animation.startAnim(e, animationTime);
+            animation.startAnim(animationTime);
         }
 
         animation.catchUp();
+        time = timer.lap(PhaseTimer.Phase.TELEPORTS, time);
 
         // STEP 2 : Compute transport pod priority
         HashMap<Tube, ArrayList<TransportPod>> podsLeavingTubes = new HashMap<Tube, ArrayList<TransportPod>>();
@@ -269,12 +300,17 @@ public class TravelManager {
                     pod.resetCapacity();
                     pod.moveToNextBuilding();
                     nothingMoved = false;
+                    if (trace != null) {
+                        trace.podDeparture(currentDay, pod, currentBuilding, nextBuilding, tube.capacity);
+                    }
 
                     podTransport.put(pod.id, new PodTransport(currentBuilding, nextBuilding));
                 }
             }
         }
 
+        time = timer.lap(PhaseTimer.Phase.POD_DEPARTURES, time);
+
         // STEP 3 : Move astronauts in tubes
         List<Astronaut> sortedAstronauts = astronauts.stream().sorted().toList();
         for (Astronaut astronaut : sortedAstronauts) {
@@ -299,16 +335,19 @@ public class TravelManager {
                     pod.remainingCapacity--;
                     astronaut.currentBuilding = nextBuilding;
                     podTransport.get(pod.id).add(astronaut.workType);
+                    if (trace != null) {
+                        trace.boarding(currentDay, astronaut, pod.id, currentBuilding, nextBuilding);
+                    }
 
                     if (astronaut.currentBuilding.buildingType == astronaut.workType) {
                         // Astronaut has reached their destination :)
-                        // Speed score
-                        dayScore += Constants.MAX_SPEED_POINTS - (currentDay + 1); // currentDay + 1 because travel took the entire day
-                        // Diversity score
-                        int astronautsAlreadyAllocated = numAstronautsAllocated.get(astronaut.currentBuilding);
-                        numAstronautsAllocated.put(astronaut.currentBuilding, astronautsAlreadyAllocated + 1);
-                        if (Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated > 0) {
-                            dayScore += Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated;
+                        int points = arrivalPoints(astronaut.currentBuilding, currentDay + 1); // currentDay + 1 because travel took the entire day
+                        dayScore += points;
+                        if (trace != null) {
+                            trace.arrival(currentDay, astronaut, pod.id, currentBuilding, nextBuilding, points);
+                        }
+                        if (traffic != null) {
+                            traffic.computeIfAbsent(astronaut.currentBuilding.id, k -> new int[2])[1]++;
                         }
                         astronauts.remove(astronaut);
                     }
@@ -318,43 +357,99 @@ public class TravelManager {
 
         }
 
-        Map<FromTo, Integer> podLaunchCounter = new HashMap<>();
-        Map<FromTo, Integer> podTotalByIds = new HashMap<>();
-
-        podTransport.values().stream()
-            .forEach(p -> {
-                FromTo ft = new FromTo(p);
-                podTotalByIds.compute(ft, (k, v) -> v == null ? 1 : v + 1);
-                podLaunchCounter.put(ft, 0);
-            });
-
-        int frameTimeBeforePods = animation.getFrameTime();
+        time = timer.lap(PhaseTimer.Phase.BOARDING, time);
 
+        // Pods crossing the same tube in the same direction share one event, the viewer staggers them
+        Map<FromTo, List<Integer>> podIdsByTube = new LinkedHashMap<>();
         podTransport.forEach((podId, transport) -> {
-            EventData e = new EventData();
-            e.type = EventData.TRANSPORT_POD;
-            e.podTransport = transport;
-            Collections.sort(transport.workers);
+            podIdsByTube.computeIfAbsent(new FromTo(transport), k -> new ArrayList<>()).add(podId);
+        });
 
-            e.params = new int[3];
-            e.params[0] = transport.fromId;
-            e.params[1] = transport.toId;
-            e.params[2] = podId;
+        int frameTimeBeforePods = animation.getFrameTime();
 
-            double p = transport.distance / 50d;
+        for (List<Integer> podIds : podIdsByTube.values()) {
+            PodTransport first = podTransport.get(podIds.get(0));
+            double p = first.distance / 50d;
             int animDuration = (int) (Animation.HALF * p);
             animation.setFrameTime(frameTimeBeforePods);
 
-            FromTo ft = new FromTo(transport);
-            int podIdx = podLaunchCounter.get(ft);
-            double podCount = podTotalByIds.get(ft);
+            // The i-th pod leaves (int) (i * (animDuration / podCount)) after the first one
+            double podCount = podIds.size();
+            int lastLaunch = (int) ((podIds.size() - 1) * (animDuration / podCount));
+            if (traffic != null) {
+                int passengers = 0;
+                for (int podId : podIds) {
+                    passengers += podTransport.get(podId).workers.size();
+                }
+                if (passengers > 0) {
+                    traffic.computeIfAbsent(first.fromId, k -> new int[2])[0] += passengers;
+                }
+            }
+            if (!animation.emits(EventData.TRANSPORT_POD)) {
+                animation.startSkippedAnim(lastLaunch + animDuration);
+                continue;
+            }
 
-            animation.wait((int) (podIdx * (animDuration / podCount)));
+            if (podIds.size() == 1) {
+                Collections.sort(first.workers);
+                animation.newEvent(EventData.TRANSPORT_POD);
+                animation.addParam(first.fromId);
+                animation.addParam(first.toId);
+                animation.addParam(podIds.get(0));
+                for (int worker : first.workers) {
+                    animation.addWorker(worker);
+                }
+                animation.startAnim(animDuration);
+                continue;
+            }
 
-            animation.startAnim(e, animDuration);
-            podLaunchCounter.compute(ft, (k, v) -> v + 1);
-        });
+            animation.newEvent(EventData.TRANSPORT_POD_GROUP);
+            animation.addParam(first.fromId);
+            animation.addParam(first.toId);
+            animation.addParam(animDuration);
+            animation.addParam(podIds.size());
+            for (int podId : podIds) {
+                List<Integer> workers = podTransport.get(podId).workers;
+                Collections.sort(workers);
+                animation.addParam(podId);
+                animation.addParam(workers.size());
+                for (int worker : workers) {
+                    animation.addParam(worker);
+                }
+            }
+            animation.startAnim(lastLaunch + animDuration);
+        }
+
+        if (traffic != null) {
+            launchDaySummaryEvent(traffic);
+        }
         animation.setFrameTime(frameTimeBeforePods);
+        timer.lap(PhaseTimer.Phase.POD_EVENTS, time);
         return dayScore;
     }
+
+    /**
+     * Counts the astronaut in the building it reached.
+     */
+    private int arrivalPoints(Building building, int arrivalDay) {
+        // Speed score
+        int points = Constants.MAX_SPEED_POINTS - arrivalDay;
+        // Diversity score
+        int astronautsAlreadyAllocated = numAstronautsAllocated.get(building);
+        numAstronautsAllocated.put(building, astronautsAlreadyAllocated + 1);
+        if (Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated > 0) {
+            points += Constants.MAX_DIVERSITY_POINTS - astronautsAlreadyAllocated;
+        }
+        return points;
+    }
+
+    private void launchDaySummaryEvent(TreeMap<Integer, int[]> traffic) {
+        animation.newEvent(EventData.DAY_SUMMARY);
+        for (Map.Entry<Integer, int[]> building : traffic.entrySet()) {
+            animation.addParam(building.getKey());
+            animation.addParam(building.getValue()[0]);
+            animation.addParam(building.getValue()[1]);
+        }
+        animation.startAnim(Animation.TENTH);
+    }
 }
\ No newline at end of file
@@ -4,8 +4,20 @@ public class Tube {
     public BuildingPair buildings;
     public int capacity;
 
+    private String formatted;
+    private int formattedCapacity;
+
     public Tube(Building building1, Building building2) {
         buildings = new BuildingPair(building1, building2);
         this.capacity = 1;
     }
+
+    public String formatString() {
+        // Only re-encoded after an upgrade
+        if (formatted == null || formattedCapacity != capacity) {
+            formatted = buildings.building1.id + " " + buildings.building2.id + " " + capacity;
+            formattedCapacity = capacity;
+        }
+        return formatted;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.codingame.view;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer, reused from one frame to the next.
+ */
+public class ByteWriter {
+    private byte[] bytes;
+    private int length;
+
+    public ByteWriter() {
+        bytes = new byte[4096];
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    public void writeByte(int b) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length++] = (byte) b;
+    }
+
+    /**
+     * Unsigned LEB128, 7 bits per byte. Negative values take 5 bytes.
+     */
+    public void writeVarint(int value) {
+        long v = value & 0xFFFFFFFFL;
+        while (v >= 0x80) {
+            writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    /**
+     * Maps small negative values to small varints: 0, -1, 1, -2, 2...
+     */
+    public void writeZigzag(int value) {
+        writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes the characters of an ASCII string, one byte each.
+     */
+    public void writeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            writeByte(value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes the decimal digits of a value, like {@link String#valueOf(int)}.
+     */
+    public void writeDecimal(int value) {
+        long v = value;
+        if (v < 0) {
+            writeByte('-');
+            v = -v;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= v) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            writeByte((int) ('0' + v / divisor % 10));
+        }
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.codingame.view;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-game dictionary of events already sent to the viewer, with a fixed number of slots. When it is full, inserting a new event evicts
+ * the least recently used one and reuses its slot. The viewer keeps the same slots: every insertion is sent with the slot it goes in.
+ */
+public class EventDictionary {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    // Access order, the eldest entry is the least recently used
+    private final LinkedHashMap<String, Integer> slotsByKey;
+    private int hits, misses;
+
+    public EventDictionary(int capacity) {
+        this.capacity = capacity;
+        this.slotsByKey = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the slot of an event already sent, or -1
+     */
+    public int find(String key) {
+        Integer slot = slotsByKey.get(key);
+        if (slot == null) {
+            misses++;
+            return -1;
+        }
+        hits++;
+        return slot;
+    }
+
+    /**
+     * @return the slot the event now occupies, or -1 if the dictionary is disabled
+     */
+    public int insert(String key) {
+        if (capacity <= 0) {
+            return -1;
+        }
+        int slot;
+        if (slotsByKey.size() < capacity) {
+            slot = slotsByKey.size();
+        } else {
+            Iterator<Map.Entry<String, Integer>> eldest = slotsByKey.entrySet().iterator();
+            slot = eldest.next().getValue();
+            eldest.remove();
+        }
+        slotsByKey.put(key, slot);
+        return slot;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+}
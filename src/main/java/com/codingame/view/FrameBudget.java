@@ -0,0 +1,170 @@
+package com.codingame.view;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.codingame.event.Animation;
+import com.codingame.event.EventBuffer;
+import com.codingame.event.EventData;
+import com.codingame.event.EventView;
+import com.codingame.game.Building;
+import com.codingame.game.City;
+
+/**
+ * Keeps the frames under a size budget, in Base64 characters. A frame over the budget loses the astronauts carried by pods and
+ * teleporters, then all its astronaut traffic is replaced by a DAY_SUMMARY event.
+ * <p>
+ * The size is estimated without the event dictionary nor the preset deflate dictionary, so that the real encoder state never has to be
+ * rolled back. Both only make frames smaller in practice. Most frames are far enough under the budget that the worst case deflate of their
+ * raw bytes fits, they are not compressed by the estimate.
+ */
+public class FrameBudget {
+
+    public enum Level {
+        FULL,
+        NO_WORKERS,
+        SUMMARY
+    }
+
+    private final int budget;
+    private final FrameEncoder estimator = new FrameEncoder(new EventDictionary(0));
+    // A frame is serialized before the next one is fitted, both buffers are reused
+    private final EventBuffer noWorkers = new EventBuffer();
+    private final EventBuffer summary = new EventBuffer();
+
+    /**
+     * @param budget 0 for no budget
+     */
+    public FrameBudget(int budget) {
+        this.budget = budget;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public void close() {
+        estimator.close();
+    }
+
+    /**
+     * @return the frame, stepped down until its estimated size fits the budget
+     */
+    public FrameSnapshot fit(FrameSnapshot frame, City city, boolean binaryFrames) {
+        if (budget <= 0 || fits(frame, binaryFrames)) {
+            return frame;
+        }
+        FrameSnapshot withoutWorkers = new FrameSnapshot(frame, withoutWorkers(frame.events), Level.NO_WORKERS);
+        if (fits(withoutWorkers, binaryFrames)) {
+            return withoutWorkers;
+        }
+        return new FrameSnapshot(frame, summary(frame.events, city), Level.SUMMARY);
+    }
+
+    private boolean fits(FrameSnapshot frame, boolean binaryFrames) {
+        if (binaryFrames) {
+            Serializer.writeBinaryFrameData(frame, estimator);
+        } else {
+            Serializer.writeFrameData(frame, estimator);
+        }
+        if (StringCompressor.maxCompressedLength(estimator.frame.length()) <= budget) {
+            return true;
+        }
+        return estimator.compressFrame().length() <= budget;
+    }
+
+    private EventView withoutWorkers(EventView events) {
+        EventBuffer result = noWorkers;
+        result.reset();
+        for (int e = 0; e < events.size(); e++) {
+            int type = events.type(e);
+            if (type == EventData.TRANSPORT_POD_GROUP) {
+                // from, to, duration, pod count, then each pod id with no workers
+                result.begin(type);
+                for (int i = 0; i < 4; i++) {
+                    result.addParam(events.param(e, i));
+                }
+                for (int pod = 0, idx = 4; pod < events.param(e, 3); pod++) {
+                    result.addParam(events.param(e, idx));
+                    result.addParam(0);
+                    idx += 2 + events.param(e, idx + 1);
+                }
+            } else if (type == EventData.TRANSPORT_TP) {
+                // Keeps the teleporter and its timings
+                result.begin(type);
+                for (int i = 0; i < 4; i++) {
+                    result.addParam(events.param(e, i));
+                }
+            } else {
+                result.beginCopy(events, e);
+                if (type == EventData.TRANSPORT_POD) {
+                    result.discardWorkers();
+                }
+            }
+            result.commit(events.start(e), events.end(e));
+        }
+        return result;
+    }
+
+    private EventView summary(EventView events, City city) {
+        EventBuffer result = summary;
+        result.reset();
+        // Astronauts who left and who arrived at their workplace, by building id
+        Map<Integer, int[]> traffic = new TreeMap<>();
+        int start = Integer.MAX_VALUE;
+        for (int e = 0; e < events.size(); e++) {
+            int type = events.type(e);
+            if (type == EventData.DAY_SUMMARY || !EventData.SIMPLIFIED_SKIPPED_EVENTS.contains(type)) {
+                result.beginCopy(events, e);
+                result.commit(events.start(e), events.end(e));
+                continue;
+            }
+            start = Math.min(start, events.start(e));
+            int fromId = events.param(e, 0), toId = events.param(e, 1);
+            if (type == EventData.TRANSPORT_POD) {
+                int workerCount = events.workerCount(e);
+                if (workerCount > 0) {
+                    traffic.computeIfAbsent(fromId, k -> new int[2])[0] += workerCount;
+                }
+                for (int i = 0; i < workerCount; i++) {
+                    countArrival(traffic, city, toId, events.worker(e, i), 1);
+                }
+            } else if (type == EventData.TRANSPORT_POD_GROUP) {
+                for (int pod = 0, idx = 4; pod < events.param(e, 3); pod++) {
+                    int workerCount = events.param(e, idx + 1);
+                    if (workerCount > 0) {
+                        traffic.computeIfAbsent(fromId, k -> new int[2])[0] += workerCount;
+                    }
+                    for (int i = 0; i < workerCount; i++) {
+                        countArrival(traffic, city, toId, events.param(e, idx + 2 + i), 1);
+                    }
+                    idx += 2 + workerCount;
+                }
+            } else if (type == EventData.TRANSPORT_TP) {
+                for (int idx = 4; idx < events.paramCount(e); idx += 2) {
+                    traffic.computeIfAbsent(fromId, k -> new int[2])[0] += events.param(e, idx + 1);
+                    countArrival(traffic, city, toId, events.param(e, idx), events.param(e, idx + 1));
+                }
+            }
+        }
+        if (traffic.isEmpty()) {
+            return result;
+        }
+
+        result.begin(EventData.DAY_SUMMARY);
+        for (Map.Entry<Integer, int[]> building : traffic.entrySet()) {
+            result.addParam(building.getKey());
+            result.addParam(building.getValue()[0]);
+            result.addParam(building.getValue()[1]);
+        }
+        result.commit(start, start + Animation.TENTH);
+        return result;
+    }
+
+    private static void countArrival(Map<Integer, int[]> traffic, City city, int buildingId, int workType, int count) {
+        Building building = city.buildings.get(buildingId);
+        if (building != null && building.buildingType == workType) {
+            traffic.computeIfAbsent(buildingId, k -> new int[2])[1] += count;
+        }
+    }
+}
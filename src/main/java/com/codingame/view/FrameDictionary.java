@@ -0,0 +1,34 @@
+package com.codingame.view;
+
+/**
+ * Preset deflate dictionary of the frames, rebuilt by the viewer from the global data line written by {@link #formatGlobalData}.
+ * <p>
+ * Most frames are short lists of references to events of the {@link EventDictionary}, and consecutive frames reference consecutive
+ * slots. Spelling out every slot reference in the format of the frames lets deflate match them from the very first frame.
+ */
+public class FrameDictionary {
+
+    public static byte[] build(boolean binaryFrames, int slots) {
+        ByteWriter out = new ByteWriter();
+        for (int slot = 0; slot < slots; slot++) {
+            // Same bytes as Serializer writes for a cached event
+            if (binaryFrames) {
+                out.writeByte(Serializer.CACHED_EVENT);
+                out.writeVarint(slot);
+            } else {
+                out.writeAscii(Serializer.MAIN_SEPARATOR);
+                out.writeDecimal(slot);
+            }
+        }
+        byte[] dictionary = new byte[out.length()];
+        System.arraycopy(out.getBytes(), 0, dictionary, 0, out.length());
+        return dictionary;
+    }
+
+    /**
+     * @param slots 0 when frames are deflated without a preset dictionary
+     */
+    public static String formatGlobalData(boolean binaryFrames, int slots) {
+        return (binaryFrames ? 1 : 0) + " " + slots;
+    }
+}
@@ -0,0 +1,120 @@
+package com.codingame.view;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codingame.event.EventView;
+import com.codingame.game.PhaseTimer;
+
+/**
+ * Per-game state of the frame formats: reusable buffers and compressor, the dictionary of already sent events and, in delta mode, what
+ * the previous frame contained.
+ */
+public class FrameEncoder {
+    public static final int KEYFRAME_INTERVAL = 20;
+
+    final ByteWriter frame = new ByteWriter();
+    final ByteWriter event = new ByteWriter();
+    final EventDictionary dictionary;
+    final StringCompressor compressor = new StringCompressor();
+
+    private String presetDictionary = FrameDictionary.formatGlobalData(false, 0);
+    // Only set when frame statistics are collected
+    private StringCompressor referenceCompressor;
+    private long rawBytes, compressedBytes, referenceBytes;
+    private PhaseTimer phaseTimer = PhaseTimer.DISABLED;
+
+    private boolean deltaFrames;
+    private int frameCount;
+    List<String> previousKeys = new ArrayList<>();
+    int[] previousStarts = new int[0];
+    int previousScore;
+    int previousResources;
+
+    public FrameEncoder(EventDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public void setDeltaFrames(boolean deltaFrames) {
+        this.deltaFrames = deltaFrames;
+    }
+
+    boolean nextFrameIsDelta() {
+        return deltaFrames && frameCount++ % KEYFRAME_INTERVAL != 0;
+    }
+
+    void setPreviousEvents(List<String> keys, EventView events) {
+        previousKeys = keys;
+        if (previousStarts.length < events.size()) {
+            previousStarts = new int[events.size()];
+        }
+        for (int i = 0; i < events.size(); i++) {
+            previousStarts[i] = events.start(i);
+        }
+    }
+
+    public void setPresetDictionary(boolean binaryFrames, int slots) {
+        compressor.setDictionary(slots > 0 ? FrameDictionary.build(binaryFrames, slots) : null);
+        presetDictionary = FrameDictionary.formatGlobalData(binaryFrames, slots);
+    }
+
+    String getPresetDictionary() {
+        return presetDictionary;
+    }
+
+    /**
+     * Also compresses every frame without the preset dictionary, to compare the sizes.
+     */
+    public void collectStats() {
+        referenceCompressor = new StringCompressor();
+    }
+
+    public void setPhaseTimer(PhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    /**
+     * Frees the native memory of the compressors, the encoder cannot compress any more frames.
+     */
+    public void close() {
+        compressor.end();
+        if (referenceCompressor != null) {
+            referenceCompressor.end();
+        }
+    }
+
+    String compressFrame() {
+        long time = phaseTimer.start();
+        String compressed = compressor.compress(frame.getBytes(), frame.length());
+        phaseTimer.lap(PhaseTimer.Phase.COMPRESSION, time);
+        if (referenceCompressor != null) {
+            rawBytes += frame.length();
+            compressedBytes += compressed.length();
+            referenceBytes += referenceCompressor.compress(frame.getBytes(), frame.length()).length();
+        }
+        return compressed;
+    }
+
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * @return the size the frames would have had without the preset dictionary
+     */
+    public long getReferenceBytes() {
+        return referenceBytes;
+    }
+
+    /**
+     * @return the dictionary key of the event currently in {@link #event}
+     */
+    String eventKey() {
+        return new String(event.getBytes(), 0, event.length(), StandardCharsets.ISO_8859_1);
+    }
+}
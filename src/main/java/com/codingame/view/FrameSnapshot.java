@@ -0,0 +1,66 @@
+package com.codingame.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codingame.event.EventBuffer;
+import com.codingame.event.EventView;
+import com.codingame.game.Building;
+import com.codingame.game.Referee;
+
+/**
+ * Everything a frame shows, copied from the referee at the end of a turn, so that a frame can be stepped down or built without a referee.
+ * Buildings are never modified once created, copying the list is enough. The events are copied, the referee reuses its event buffer.
+ */
+public class FrameSnapshot {
+    public final boolean newMonth;
+    public final boolean endOfMonth;
+    public final int totalScore;
+    public final int resources;
+    public final List<Building> newBuildings;
+    public final EventView events;
+    // Set when the frame was stepped down to fit the frame budget
+    public final FrameBudget.Level level;
+
+    public FrameSnapshot(Referee referee) {
+        this(referee, new EventBuffer());
+    }
+
+    /**
+     * @param events where the events are copied, can be reused once the frame is serialized
+     */
+    public FrameSnapshot(Referee referee, EventBuffer events) {
+        newMonth = referee.isNewMonthFrame();
+        endOfMonth = referee.isEndOfMonthFrame();
+        totalScore = referee.totalScore;
+        resources = referee.city.resources;
+        newBuildings = new ArrayList<>(referee.newBuildingsforView);
+
+        events.copyFrom(referee.getViewerEvents());
+        this.events = events;
+        level = FrameBudget.Level.FULL;
+    }
+
+    /**
+     * A frame of a game played without a referee, by the benchmarks.
+     */
+    public FrameSnapshot(boolean newMonth, boolean endOfMonth, int totalScore, int resources, List<Building> newBuildings, EventView events) {
+        this.newMonth = newMonth;
+        this.endOfMonth = endOfMonth;
+        this.totalScore = totalScore;
+        this.resources = resources;
+        this.newBuildings = newBuildings;
+        this.events = events;
+        level = FrameBudget.Level.FULL;
+    }
+
+    FrameSnapshot(FrameSnapshot frame, EventView events, FrameBudget.Level level) {
+        newMonth = frame.newMonth;
+        endOfMonth = frame.endOfMonth;
+        totalScore = frame.totalScore;
+        resources = frame.resources;
+        newBuildings = frame.newBuildings;
+        this.events = events;
+        this.level = level;
+    }
+}
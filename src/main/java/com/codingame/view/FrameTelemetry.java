@@ -0,0 +1,63 @@
+package com.codingame.view;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.codingame.event.EventView;
+
+/**
+ * Sizes and contents of the frames sent during a game, summed up as JSON for the game metadata.
+ */
+public class FrameTelemetry {
+    private int frames;
+    private long rawBytes;
+    private long compressedBytes;
+    private int maxCompressedBytes;
+    private int maxFrame;
+    private int overBudget;
+    private final int[] framesByLevel = new int[FrameBudget.Level.values().length];
+    private final Map<Integer, Long> eventsByType = new TreeMap<>();
+
+    /**
+     * @param rawBytes size before deflate
+     * @param compressedBytes size sent, in Base64 characters
+     */
+    public void record(FrameSnapshot frame, int rawBytes, int compressedBytes, int budget) {
+        frames++;
+        this.rawBytes += rawBytes;
+        this.compressedBytes += compressedBytes;
+        if (compressedBytes > maxCompressedBytes) {
+            maxCompressedBytes = compressedBytes;
+            maxFrame = frames;
+        }
+        if (budget > 0 && compressedBytes > budget) {
+            overBudget++;
+        }
+        framesByLevel[frame.level.ordinal()]++;
+        EventView events = frame.events;
+        for (int i = 0; i < events.size(); i++) {
+            eventsByType.merge(events.type(i), 1L, Long::sum);
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"frames\":").append(frames)
+            .append(",\"rawBytes\":").append(rawBytes)
+            .append(",\"compressedBytes\":").append(compressedBytes)
+            .append(",\"maxCompressedBytes\":").append(maxCompressedBytes)
+            .append(",\"maxFrame\":").append(maxFrame)
+            .append(",\"overBudget\":").append(overBudget)
+            .append(",\"levels\":{");
+        for (FrameBudget.Level level : FrameBudget.Level.values()) {
+            json.append(level.ordinal() == 0 ? "" : ",").append('"').append(level).append("\":").append(framesByLevel[level.ordinal()]);
+        }
+        json.append("},\"eventsByType\":{");
+        boolean first = true;
+        for (Map.Entry<Integer, Long> entry : eventsByType.entrySet()) {
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+}
@@ -1,84 +1,76 @@
 package com.codingame.view;
 
-import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.codingame.event.EventData;
+import com.codingame.event.EventView;
 import com.codingame.game.Building;
-import com.codingame.game.Constants;
 import com.codingame.game.Referee;
-import com.codingame.view.history.PodTransport;
 
 public class Serializer {
     public static final String MAIN_SEPARATOR = "\n";
     private static final String BASE91_CHARSET = "0123456789:<=>?@ABCDEFGHIJKLMNOPQRSTUVWXYZ[]^_`abcdefghijklmnopqrstuvwxyz{|}~!\"#$%&()*+,-./";
-    private static final BigInteger BASE = new BigInteger(String.valueOf(BASE91_CHARSET.length()));
-
-    private static final int MAX_HASHES = 1000;
-    private static HashMap<String, Integer> podTransportHashes = new HashMap<>();
-
-    static public String serialize(EventData e) {
-        String event = join(
-            e.type,
-            e.animData.start,
-            e.animData.end,
-            e.type == EventData.TRANSPORT_POD
-                ? join(serialize(e.params), serializePodTransport(e.podTransport)).trim()
-                : serialize(e.params)
-        );
-        if (podTransportHashes.containsKey(event)) {
-            return String.valueOf(podTransportHashes.get(event));
+    // Worker types are varints: digits below VARINT_BASE end a value, the others carry a lower digit and continue
+    private static final int VARINT_BASE = BASE91_CHARSET.length() / 2;
+
+    // Text frames start with an ASCII digit, binary frames with their version
+    public static final int BINARY_FORMAT_VERSION = 1;
+    private static final int NEW_MONTH_FLAG = 1;
+    private static final int END_OF_MONTH_FLAG = 2;
+    static final int CACHED_EVENT = 0xFF;
+    private static final int NEW_CACHED_EVENT = 0xFE;
+    public static final String NEW_CACHED_EVENT_PREFIX = "+";
+    private static final int DELTA_FLAG = 4;
+    private static final int COPY_EVENTS = 0;
+    private static final int SKIP_EVENTS = 1;
+    private static final int INSERT_EVENTS = 2;
+    // Number of params every event of a type has, the remaining ones are preceded by their count
+    private static final int[] FIXED_PARAMS = { 2, 0, 3, 4, 3, 1, 0, 1, 2, 4, 0 };
+    private static final boolean[] VARIABLE_PARAMS = { false, true, true, true, false, true, true, false, false, true, true };
+
+    static public String serialize(EventView events, int e, EventDictionary dictionary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(events.type(e)).append(' ').append(events.start(e)).append(' ').append(events.end(e));
+        // No trailing space without parameters, such as a DAY_SUMMARY without traffic: the viewer would read an empty parameter
+        for (int i = 0; i < events.paramCount(e); i++) {
+            sb.append(' ').append(events.param(e, i));
+        }
+        if (events.workerCount(e) > 0) {
+            sb.append(' ');
+            appendBase91(sb, events, e);
         }
-        if (podTransportHashes.size() < MAX_HASHES) {
-            int next = podTransportHashes.size();
-            podTransportHashes.put(event, next);
+        String event = sb.toString();
+        int slot = dictionary.find(event);
+        if (slot >= 0) {
+            return String.valueOf(slot);
+        }
+        slot = dictionary.insert(event);
+        if (slot >= 0) {
+            return NEW_CACHED_EVENT_PREFIX + slot + " " + event;
         }
         return event;
     }
 
-    static public String serialize(int[] intArray) {
-        return Arrays.stream(intArray).mapToObj(String::valueOf).collect(Collectors.joining(" "));
-    }
-
-    static public String serializePodTransport(PodTransport pt) {
-        if (pt.workers.isEmpty()) {
-            return "";
+    private static void appendBase91(StringBuilder result, EventView events, int e) {
+        for (int i = 0; i < events.workerCount(e); i++) {
+            appendBase91(result, events.worker(e, i));
         }
-
-        BigInteger code = new BigInteger(pt.workers.stream().map(nb -> "%02d".formatted(nb)).collect(Collectors.joining()));
-        String base = toBase91(code);
-        return base;
     }
 
-    public static String toBase91(BigInteger num) {
-        if (num.equals(BigInteger.ZERO)) {
-            return String.valueOf(BASE91_CHARSET.charAt(0)); // Return the first character for zero
-        }
-
-        StringBuilder result = new StringBuilder();
-
-        while (num.compareTo(BigInteger.ZERO) > 0) {
-            BigInteger[] divAndRemainder = num.divideAndRemainder(BASE); // Get quotient and remainder
-            int remainder = divAndRemainder[1].intValue(); // Convert remainder to int for indexing
-            result.insert(0, BASE91_CHARSET.charAt(remainder)); // Prepend the corresponding character
-            num = divAndRemainder[0]; // Update num with the quotient
+    private static void appendBase91(StringBuilder result, int value) {
+        while (value >= VARINT_BASE) {
+            result.append(BASE91_CHARSET.charAt(VARINT_BASE + value % VARINT_BASE));
+            value /= VARINT_BASE;
         }
-
-        return result.toString();
-    }
-
-    static public String join(Object... args) {
-        return Stream.of(args)
-            .map(String::valueOf)
-            .collect(Collectors.joining(" "));
+        result.append(BASE91_CHARSET.charAt(value));
     }
 
-    public static String serializeGlobalData(Referee referee) {
+    public static String serializeGlobalData(Referee referee, FrameEncoder encoder) {
         List<Object> lines = new ArrayList<>();
 
         lines.add(referee.getMinX());
@@ -86,7 +78,8 @@ public class Serializer {
         lines.add(referee.getMaxX());
         lines.add(referee.getMaxY());
 
-        lines.add(referee.simplifiedMode ? 1 : 0);
+        // 2 when the astronaut traffic is only summed up
+        lines.add(referee.getAnimationDetail().ordinal());
         lines.add(referee.gameRatio != null ? referee.gameRatio : 0);
 
         CityDto cityDto = new CityDto(referee.city);
@@ -94,6 +87,7 @@ public class Serializer {
         cityDto.resources = referee.city.resources;
 
         lines.add(serialize(cityDto));
+        lines.add(encoder.getPresetDictionary());
         return lines.stream()
             .map(String::valueOf)
             .collect(Collectors.joining(MAIN_SEPARATOR));
@@ -114,45 +108,239 @@ public class Serializer {
             .collect(Collectors.joining(" "));
     }
 
-    public static String serializeFrameData(Referee referee) {
-        List<Object> lines = new ArrayList<>();
+    public static String serializeFrameData(Referee referee, FrameEncoder encoder) {
+        return serializeFrameData(new FrameSnapshot(referee), encoder);
+    }
+
+    public static String serializeFrameData(FrameSnapshot frame, FrameEncoder encoder) {
+        writeFrameData(frame, encoder);
+        return encoder.compressFrame();
+    }
 
-        List<Building> newBuildingsThisMonth = referee.newBuildingsforView;
-        lines.add(referee.isNewMonthFrame() ? 1 : 0);
-        lines.add(referee.isEndOfMonthFrame() ? 1 : 0);
+    /**
+     * Writes the frame into the frame buffer of the encoder, without compressing it.
+     */
+    static void writeFrameData(FrameSnapshot frame, FrameEncoder encoder) {
+        // Written straight into the reused frame buffer, every line is ASCII
+        ByteWriter out = encoder.frame;
+        out.reset();
 
-        if (referee.isNewMonthFrame()) {
-            CityDto cityDto = new CityDto(referee.city);
-            cityDto.buildings = newBuildingsThisMonth.stream().map(b -> new BuildingDto(b)).toList();
-            cityDto.resources = referee.city.resources;
+        out.writeDecimal(frame.newMonth ? 1 : 0);
+        out.writeAscii(MAIN_SEPARATOR);
+        out.writeDecimal(frame.endOfMonth ? 1 : 0);
+        out.writeAscii(MAIN_SEPARATOR);
 
-            lines.add(referee.totalScore);
-            lines.add(serialize(cityDto));
+        if (frame.newMonth) {
+            out.writeDecimal(frame.totalScore);
+            out.writeAscii(MAIN_SEPARATOR);
+            List<Building> newBuildingsThisMonth = frame.newBuildings;
+            out.writeDecimal(newBuildingsThisMonth.size());
+            for (Building building : newBuildingsThisMonth) {
+                out.writeByte(' ');
+                out.writeDecimal(building.id);
+                out.writeByte(' ');
+                out.writeDecimal(building.buildingType);
+                out.writeByte(' ');
+                out.writeDecimal(building.x);
+                out.writeByte(' ');
+                out.writeDecimal(building.y);
+            }
+            out.writeByte(' ');
+            out.writeDecimal(frame.resources);
+            out.writeAscii(MAIN_SEPARATOR);
         }
 
-        if (referee.isEndOfMonthFrame()) {
-            lines.add(referee.totalScore);
-            lines.add(referee.city.resources);
+        if (frame.endOfMonth) {
+            out.writeDecimal(frame.totalScore);
+            out.writeAscii(MAIN_SEPARATOR);
+            out.writeDecimal(frame.resources);
+            out.writeAscii(MAIN_SEPARATOR);
         }
 
-        List<EventData> events = referee.getViewerEvents();
+        EventView events = frame.events;
 
-        if (referee.simplifiedMode) {
-            events = events.stream()
-                .filter(event -> !Constants.SIMPLIFIED_SKIPPED_EVENTS.contains(event.type))
-                .toList();
+        out.writeDecimal(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            out.writeAscii(MAIN_SEPARATOR);
+            out.writeAscii(serialize(events, i, encoder.dictionary));
         }
+    }
 
-        lines.add(events.size());
-        events.stream()
-            .map(e -> serialize(e))
-            .forEach(lines::add);
+    /**
+     * Same content as {@link #serializeFrameData(Referee, FrameEncoder)}, as varints. Animation times are delta-coded from the previous
+     * event, events already sent are replaced by their dictionary slot.
+     * <p>
+     * In delta mode, frames between two keyframes only describe how the events of the previous frame changed, and send the score and
+     * resources as differences.
+     */
+    public static String serializeBinaryFrameData(Referee referee, FrameEncoder encoder) {
+        return serializeBinaryFrameData(new FrameSnapshot(referee), encoder);
+    }
 
-        String unzipped = lines.stream()
-            .map(String::valueOf)
-            .collect(Collectors.joining(MAIN_SEPARATOR));
-        return StringCompressor.compressToBase64(unzipped);
+    public static String serializeBinaryFrameData(FrameSnapshot frame, FrameEncoder encoder) {
+        writeBinaryFrameData(frame, encoder);
+        return encoder.compressFrame();
+    }
+
+    /**
+     * Writes the frame into the frame buffer of the encoder, without compressing it.
+     */
+    static void writeBinaryFrameData(FrameSnapshot frame, FrameEncoder encoder) {
+        ByteWriter out = encoder.frame;
+        out.reset();
+        boolean delta = encoder.nextFrameIsDelta();
+        out.writeByte(BINARY_FORMAT_VERSION);
+        out.writeByte(
+            (frame.newMonth ? NEW_MONTH_FLAG : 0) | (frame.endOfMonth ? END_OF_MONTH_FLAG : 0) | (delta ? DELTA_FLAG : 0)
+        );
+
+        if (frame.newMonth) {
+            out.writeZigzag(frame.totalScore - (delta ? encoder.previousScore : 0));
+            List<Building> newBuildings = frame.newBuildings;
+            out.writeVarint(newBuildings.size());
+            int previousId = 0;
+            for (Building building : newBuildings) {
+                out.writeZigzag(building.id - previousId);
+                out.writeVarint(building.buildingType);
+                out.writeVarint(building.x);
+                out.writeVarint(building.y);
+                previousId = building.id;
+            }
+            out.writeZigzag(frame.resources - (delta ? encoder.previousResources : 0));
+            encoder.previousScore = frame.totalScore;
+            encoder.previousResources = frame.resources;
+        }
+
+        if (frame.endOfMonth) {
+            out.writeZigzag(frame.totalScore - (delta ? encoder.previousScore : 0));
+            out.writeZigzag(frame.resources - (delta ? encoder.previousResources : 0));
+            encoder.previousScore = frame.totalScore;
+            encoder.previousResources = frame.resources;
+        }
+
+        EventView events = frame.events;
+        List<String> keys = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            // The cache key uses absolute times, like the text format
+            ByteWriter eventOut = encoder.event;
+            eventOut.reset();
+            eventOut.writeByte(events.type(i));
+            eventOut.writeVarint(events.start(i));
+            eventOut.writeVarint(events.end(i));
+            serializeBinaryParams(events, i, eventOut);
+            keys.add(encoder.eventKey());
+        }
+
+        if (delta) {
+            serializeEventChanges(events, keys, encoder);
+        } else {
+            out.writeVarint(events.size());
+            int previousStart = 0;
+            for (int i = 0; i < events.size(); i++) {
+                serializeBinaryEvent(events, i, keys.get(i), previousStart, encoder);
+                previousStart = events.start(i);
+            }
+        }
+        encoder.setPreviousEvents(keys, events);
+    }
+
+    /**
+     * Writes the events as runs of operations on the events of the previous frame: copy the next ones, skip the next ones, or insert new
+     * events.
+     */
+    private static void serializeEventChanges(EventView events, List<String> keys, FrameEncoder encoder) {
+        // Indices of the previous events, by key
+        Map<String, ArrayDeque<Integer>> previousIndices = new HashMap<>();
+        for (int i = 0; i < encoder.previousKeys.size(); i++) {
+            previousIndices.computeIfAbsent(encoder.previousKeys.get(i), k -> new ArrayDeque<>()).add(i);
+        }
+
+        List<int[]> runs = new ArrayList<>();
+        int previousCursor = 0;
+        for (int i = 0; i < events.size(); i++) {
+            ArrayDeque<Integer> candidates = previousIndices.get(keys.get(i));
+            while (candidates != null && !candidates.isEmpty() && candidates.peekFirst() < previousCursor) {
+                candidates.pollFirst();
+            }
+            if (candidates != null && !candidates.isEmpty()) {
+                int match = candidates.pollFirst();
+                if (match > previousCursor) {
+                    addRun(runs, SKIP_EVENTS, match - previousCursor, i);
+                }
+                addRun(runs, COPY_EVENTS, 1, i);
+                previousCursor = match + 1;
+            } else {
+                addRun(runs, INSERT_EVENTS, 1, i);
+            }
+        }
+
+        ByteWriter out = encoder.frame;
+        out.writeVarint(runs.size());
+        int previousStart = 0;
+        int copyCursor = 0;
+        for (int[] run : runs) {
+            int kind = run[0], count = run[1], first = run[2];
+            out.writeVarint(kind | count << 2);
+            if (kind == SKIP_EVENTS) {
+                copyCursor += count;
+            } else if (kind == COPY_EVENTS) {
+                copyCursor += count;
+                previousStart = encoder.previousStarts[copyCursor - 1];
+            } else {
+                for (int i = first; i < first + count; i++) {
+                    serializeBinaryEvent(events, i, keys.get(i), previousStart, encoder);
+                    previousStart = events.start(i);
+                }
+            }
+        }
+    }
+
+    private static void addRun(List<int[]> runs, int kind, int count, int eventIdx) {
+        int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+        if (last != null && last[0] == kind) {
+            last[1] += count;
+        } else {
+            runs.add(new int[] { kind, count, eventIdx });
+        }
+    }
 
+    private static void serializeBinaryEvent(EventView events, int e, String key, int previousStart, FrameEncoder encoder) {
+        ByteWriter out = encoder.frame;
+        int slot = encoder.dictionary.find(key);
+        if (slot >= 0) {
+            out.writeByte(CACHED_EVENT);
+            out.writeVarint(slot);
+            return;
+        }
+        slot = encoder.dictionary.insert(key);
+        if (slot >= 0) {
+            out.writeByte(NEW_CACHED_EVENT);
+            out.writeVarint(slot);
+        }
+        out.writeByte(events.type(e));
+        out.writeZigzag(events.start(e) - previousStart);
+        out.writeZigzag(events.end(e) - events.start(e));
+        serializeBinaryParams(events, e, out);
+    }
+
+    private static void serializeBinaryParams(EventView events, int e, ByteWriter out) {
+        int type = events.type(e);
+        int paramCount = events.paramCount(e);
+        int fixed = Math.min(FIXED_PARAMS[type], paramCount);
+        for (int i = 0; i < fixed; i++) {
+            out.writeVarint(events.param(e, i));
+        }
+        if (type == EventData.TRANSPORT_POD) {
+            out.writeVarint(events.workerCount(e));
+            for (int i = 0; i < events.workerCount(e); i++) {
+                out.writeVarint(events.worker(e, i));
+            }
+        } else if (VARIABLE_PARAMS[type]) {
+            out.writeVarint(paramCount - fixed);
+            for (int i = fixed; i < paramCount; i++) {
+                out.writeVarint(events.param(e, i));
+            }
+        }
     }
 
 }
@@ -1,34 +1,113 @@
 package com.codingame.view;
 
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.zip.Deflater;
 
+/**
+ * Deflates frames and encodes them in Base64. An instance keeps its Deflater and output buffer from one frame to the next, and encodes
+ * each deflated chunk as soon as it is produced instead of collecting the whole compressed frame first.
+ */
 public class StringCompressor {
+  private static final byte[] BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+      .getBytes(StandardCharsets.ISO_8859_1);
+
+  private final Deflater deflater = new Deflater();
+  private byte[] dictionary;
+  private final byte[] chunk = new byte[1024];
+  private byte[] base64 = new byte[4096];
+  private int base64Length;
+  private int group;
+  private int groupLength;
 
   public static String compressToBase64(String data) {
+    // Convert string to bytes
+    byte[] input = data.getBytes(StandardCharsets.UTF_8);
+    return compressToBase64(input, input.length);
+  }
+
+  public static String compressToBase64(byte[] input, int length) {
+    StringCompressor compressor = new StringCompressor();
     try {
-      // Convert string to bytes
-      byte[] input = data.getBytes("UTF-8");
+      return compressor.compress(input, length);
+    } finally {
+      compressor.end();
+    }
+  }
+
+  /**
+   * Preset dictionary of every following stream, the inflater needs the same one.
+   */
+  public void setDictionary(byte[] dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Same output as {@link #compressToBase64(byte[], int)} when no dictionary is set, reusing this compressor's Deflater and buffers.
+   */
+  public String compress(byte[] input, int length) {
+    deflater.reset();
+    if (dictionary != null) {
+      deflater.setDictionary(dictionary);
+    }
+    deflater.setInput(input, 0, length);
+    deflater.finish();
+
+    base64Length = 0;
+    groupLength = 0;
+    while (!deflater.finished()) {
+      int compressedDataLength = deflater.deflate(chunk);
+      encode(chunk, compressedDataLength);
+    }
+    encodeLastGroup();
+    return new String(base64, 0, base64Length, StandardCharsets.ISO_8859_1);
+  }
 
-      // Compress the bytes
-      Deflater deflater = new Deflater();
-      deflater.setInput(input);
-      deflater.finish();
+  /**
+   * @return the longest output of {@link #compress(byte[], int)} for an input of this length, with the worst case bound of zlib
+   */
+  public static int maxCompressedLength(int length) {
+    int deflated = length + ((length + 7) >> 3) + ((length + 63) >> 6) + 5 + 6;
+    return (deflated + 2) / 3 * 4;
+  }
 
-      byte[] buffer = new byte[1024];
-      int compressedDataLength;
-      try (java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream()) {
-        while (!deflater.finished()) {
-          compressedDataLength = deflater.deflate(buffer);
-          outputStream.write(buffer, 0, compressedDataLength);
-        }
-        deflater.end();
+  public void end() {
+    deflater.end();
+  }
 
-        // Encode compressed data to Base64
-        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+  private void encode(byte[] data, int length) {
+    ensureCapacity((groupLength + length) / 3 * 4 + 4);
+    for (int i = 0; i < length; i++) {
+      group = group << 8 | data[i] & 0xFF;
+      if (++groupLength == 3) {
+        writeGroup(4);
+        groupLength = 0;
       }
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+    }
+  }
+
+  private void encodeLastGroup() {
+    if (groupLength == 0) {
+      return;
+    }
+    // Padded like java.util.Base64
+    int chars = groupLength + 1;
+    group <<= 8 * (3 - groupLength);
+    writeGroup(chars);
+    for (int i = chars; i < 4; i++) {
+      base64[base64Length++] = '=';
+    }
+  }
+
+  private void writeGroup(int chars) {
+    for (int i = 0; i < chars; i++) {
+      base64[base64Length++] = BASE64_ALPHABET[(group >> (18 - 6 * i)) & 0x3F];
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (base64Length + extra > base64.length) {
+      base64 = Arrays.copyOf(base64, Math.max(base64.length * 2, base64Length + extra));
     }
   }
 
@@ -1,5 +1,7 @@
 package com.codingame.view;
 
+import com.codingame.event.EventBuffer;
+import com.codingame.game.PhaseTimer;
 import com.codingame.game.Referee;
 import com.codingame.gameengine.core.AbstractPlayer;
 import com.codingame.gameengine.core.GameManager;
@@ -9,18 +11,39 @@ import com.google.inject.Singleton;
 
 @Singleton
 public class ViewModule implements Module {
+    public static final String FRAMES_PROPERTY = "moonCity.frames";
 
     private GameManager<AbstractPlayer> gameManager;
     private Referee referee;
+    // The text format stays available with -DmoonCity.frameFormat=text
+    private boolean binaryFrames = !"text".equals(System.getProperty("moonCity.frameFormat"));
+    private EventDictionary eventDictionary = new EventDictionary(EventDictionary.DEFAULT_CAPACITY);
+    private FrameEncoder frameEncoder = new FrameEncoder(eventDictionary);
+    // Frames are deflated with a preset dictionary unless -DmoonCity.frameDictionary=false
+    private boolean presetDictionary = !"false".equals(System.getProperty("moonCity.frameDictionary"));
+    private boolean frameStats = Boolean.getBoolean("moonCity.frameStats");
+    // Frames over -DmoonCity.frameBudget=<Base64 characters> lose details, see FrameBudget
+    private FrameBudget frameBudget = new FrameBudget(Integer.getInteger("moonCity.frameBudget", 0));
+    // No frame at all with -DmoonCity.frames=false, to measure the game without its view
+    private boolean frames = !"false".equals(System.getProperty(FRAMES_PROPERTY));
+    private FrameTelemetry frameTelemetry = new FrameTelemetry();
+    // The events of every frame are copied into the same buffer
+    private final EventBuffer frameEvents = new EventBuffer();
 
     @Inject
     ViewModule(GameManager<AbstractPlayer> gameManager) {
         this.gameManager = gameManager;
         gameManager.registerModule(this);
+        // Frames relative to the previous one are opt-in, with -DmoonCity.deltaFrames=true
+        frameEncoder.setDeltaFrames(Boolean.getBoolean("moonCity.deltaFrames"));
+        if (frameStats) {
+            frameEncoder.collectStats();
+        }
     }
 
     public void init(Referee referee) {
         this.referee = referee;
+        frameEncoder.setPhaseTimer(referee.phaseTimer);
     }
 
     @Override
@@ -29,12 +52,57 @@ public class ViewModule implements Module {
         sendFrameData();
     }
 
+    public void setBinaryFrames(boolean binaryFrames) {
+        this.binaryFrames = binaryFrames;
+    }
+
+    public void setPresetDictionary(boolean presetDictionary) {
+        this.presetDictionary = presetDictionary;
+    }
+
+    public void setDeltaFrames(boolean deltaFrames) {
+        frameEncoder.setDeltaFrames(deltaFrames);
+    }
+
+    public void setFrameBudget(int budget) {
+        frameBudget.close();
+        frameBudget = new FrameBudget(budget);
+    }
+
+    /**
+     * Replays send no frame either.
+     */
+    private boolean sendsFrames() {
+        return frames && !referee.isReplay();
+    }
+
+    private FrameSnapshot nextFrame() {
+        return frameBudget.fit(new FrameSnapshot(referee, frameEvents), referee.city, binaryFrames);
+    }
+
+    private String serializeFrame(FrameSnapshot frame) {
+        long time = referee.phaseTimer.start();
+        String data = binaryFrames ? Serializer.serializeBinaryFrameData(frame, frameEncoder) : Serializer.serializeFrameData(frame, frameEncoder);
+        frameTelemetry.record(frame, frameEncoder.frame.length(), data.length(), frameBudget.getBudget());
+        referee.phaseTimer.lap(PhaseTimer.Phase.FRAME, time);
+        return data;
+    }
+
     private void sendFrameData() {
-        gameManager.setViewData("graphics", Serializer.serializeFrameData(referee));
+        if (!sendsFrames()) {
+            return;
+        }
+        gameManager.setViewData("graphics", serializeFrame(nextFrame()));
     }
 
     private void sendGlobalData() {
-        gameManager.setViewGlobalData("graphics", Serializer.serializeGlobalData(referee));
+        if (!sendsFrames()) {
+            return;
+        }
+        if (presetDictionary) {
+            frameEncoder.setPresetDictionary(binaryFrames, eventDictionary.getCapacity());
+        }
+        gameManager.setViewGlobalData("graphics", Serializer.serializeGlobalData(referee, frameEncoder));
 
     }
 
@@ -45,6 +113,17 @@ public class ViewModule implements Module {
 
     @Override
     public final void onAfterOnEnd() {
+        frameEncoder.close();
+        frameBudget.close();
+        if (frameStats) {
+            // Sizes of every frame of the game, in bytes before deflate and in Base64 characters after
+            gameManager.putMetadata("frameRawBytes", String.valueOf(frameEncoder.getRawBytes()));
+            gameManager.putMetadata("frameCompressedBytes", String.valueOf(frameEncoder.getCompressedBytes()));
+            gameManager.putMetadata("frameBytesWithoutDictionary", String.valueOf(frameEncoder.getReferenceBytes()));
+        }
+        if (frameStats || frameBudget.getBudget() > 0) {
+            gameManager.putMetadata("frameTelemetry", frameTelemetry.toJson());
+        }
     }
 
 }
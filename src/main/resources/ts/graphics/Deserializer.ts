@@ -8,8 +8,191 @@ function splitLine (str: string) {
   return str.length === 0 ? [] : str.split(' ')
 }
 
+// Text frames start with an ASCII digit, binary frames with their version
+const BINARY_FORMAT_VERSION = 1
+const NEW_MONTH_FLAG = 1
+const END_OF_MONTH_FLAG = 2
+const CACHED_EVENT = 0xFF
+// Followed by the dictionary slot the event goes in, replacing the previous one
+const NEW_CACHED_EVENT = 0xFE
+// Frames that only describe how the events of the previous frame changed
+const DELTA_FLAG = 4
+const COPY_EVENTS = 0
+const SKIP_EVENTS = 1
+// Number of params every event of a type has, the remaining ones are preceded by their count
+const FIXED_PARAMS = [2, 0, 3, 4, 3, 1, 0, 1, 2, 4, 0]
+const VARIABLE_PARAMS = [false, true, true, true, false, true, true, false, false, true, true]
+
 export function parseData (unzipped: string, globalData: GlobalDataDto): FrameDataDto {
-  const unsplit = decompressFromBase64(unzipped)
+  const bytes = decompressFromBase64(unzipped, globalData.frameDictionary)
+  if (bytes[0] === BINARY_FORMAT_VERSION) {
+    return parseBinaryData(bytes, globalData)
+  }
+  return parseTextData(new TextDecoder('utf-8').decode(bytes), globalData)
+}
+
+class ByteReader {
+  view: DataView
+  pos: number
+
+  constructor (bytes: Uint8Array) {
+    this.view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength)
+    this.pos = 0
+  }
+
+  readByte (): number {
+    return this.view.getUint8(this.pos++)
+  }
+
+  readVarint (): number {
+    let value = 0
+    let mult = 1
+    let b: number
+    do {
+      b = this.readByte()
+      value += (b & 0x7F) * mult
+      mult *= 128
+    } while (b & 0x80)
+    // Values were written as unsigned 32 bits integers
+    return value | 0
+  }
+
+  readZigzag (): number {
+    const v = this.readVarint()
+    return (v >>> 1) ^ -(v & 1)
+  }
+}
+
+function readBinaryEvent (reader: ByteReader, globalData: GlobalDataDto, previousStart: number): EventDto {
+  let type = reader.readByte()
+  if (type === CACHED_EVENT) {
+    const cacheIdx = reader.readVarint()
+    const e = globalData.podEventCache[cacheIdx]
+    if (e == null) {
+      console.error('Event cache missing for index', cacheIdx)
+    }
+    return {...e, animData: {...e.animData}}
+  }
+  let slot = -1
+  if (type === NEW_CACHED_EVENT) {
+    slot = reader.readVarint()
+    type = reader.readByte()
+  }
+  const start = previousStart + reader.readZigzag()
+  const end = start + reader.readZigzag()
+
+  const params = []
+  for (let j = 0; j < FIXED_PARAMS[type]; ++j) {
+    params.push(reader.readVarint())
+  }
+  if (VARIABLE_PARAMS[type]) {
+    const count = reader.readVarint()
+    for (let j = 0; j < count; ++j) {
+      params.push(reader.readVarint())
+    }
+  }
+
+  const e = {
+    type,
+    animData: { start, end },
+    params
+  }
+  if (slot >= 0) {
+    globalData.podEventCache[slot] = {...e, animData: {...e.animData}}
+  }
+  return e
+}
+
+function parseBinaryData (bytes: Uint8Array, globalData: GlobalDataDto): FrameDataDto {
+  const reader = new ByteReader(bytes)
+  reader.readByte() // version
+  const flags = reader.readByte()
+  const isNewMonth = (flags & NEW_MONTH_FLAG) !== 0
+  const isMonthEnd = (flags & END_OF_MONTH_FLAG) !== 0
+  const isDelta = (flags & DELTA_FLAG) !== 0
+  const previous = globalData.previousFrame
+
+  let city = null
+  let score = null
+  if (isNewMonth) {
+    score = reader.readZigzag() + (isDelta ? previous.score : 0)
+    const buildings: BuildingDto[] = []
+    const buildingCount = reader.readVarint()
+    let id = 0
+    for (let i = 0; i < buildingCount; ++i) {
+      id += reader.readZigzag()
+      const buildingType = reader.readVarint()
+      const x = reader.readVarint()
+      const y = reader.readVarint()
+      buildings.push({
+        id, x, y, buildingType
+      })
+    }
+    city = {
+      tubes: [],
+      teleporters: [],
+      buildings,
+      resources: reader.readZigzag() + (isDelta ? previous.resources : 0)
+    }
+    previous.score = score
+    previous.resources = city.resources
+  }
+  if (isMonthEnd) {
+    score = reader.readZigzag() + (isDelta ? previous.score : 0)
+    city = {
+      ...city,
+      resources: reader.readZigzag() + (isDelta ? previous.resources : 0)
+    }
+    previous.score = score
+    previous.resources = city.resources
+  }
+
+  const events: EventDto[] = []
+  let start = 0
+  if (isDelta) {
+    // Runs of operations on the events of the previous frame
+    const runCount = reader.readVarint()
+    let previousIdx = 0
+    for (let i = 0; i < runCount; ++i) {
+      const header = reader.readVarint()
+      const kind = header & 3
+      const count = header >>> 2
+      if (kind === SKIP_EVENTS) {
+        previousIdx += count
+      } else if (kind === COPY_EVENTS) {
+        for (let j = 0; j < count; ++j) {
+          const e = previous.events[previousIdx++]
+          events.push({...e, animData: {...e.animData}})
+          start = e.animData.start
+        }
+      } else {
+        for (let j = 0; j < count; ++j) {
+          const e = readBinaryEvent(reader, globalData, start)
+          events.push(e)
+          start = e.animData.start
+        }
+      }
+    }
+  } else {
+    const eventCount = reader.readVarint()
+    for (let i = 0; i < eventCount; ++i) {
+      const e = readBinaryEvent(reader, globalData, start)
+      events.push(e)
+      start = e.animData.start
+    }
+  }
+  previous.events = events.map(e => ({...e, animData: {...e.animData}}))
+
+  return {
+    city,
+    events,
+    newMonth: isNewMonth,
+    score,
+    isLastDayOfMonth: isMonthEnd
+  }
+}
+
+function parseTextData (unsplit: string, globalData: GlobalDataDto): FrameDataDto {
   const raw =  unsplit.split('\n')
   let idx = 0
   const isNewMonth = raw[idx++] === '1'
@@ -36,6 +219,7 @@ export function parseData (unzipped: string, globalData: GlobalDataDto): FrameDa
     const rawEvent = splitLine(raw[idx++])
 
     let evIdx = 0
+    let slot = -1
     if (rawEvent.length === 1) {
       const cacheIdx = +rawEvent[0]
       const e = globalData.podEventCache[cacheIdx]
@@ -45,6 +229,9 @@ export function parseData (unzipped: string, globalData: GlobalDataDto): FrameDa
       events.push({...e, animData: {...e.animData}})
       continue
     }
+    if (rawEvent[0][0] === '+') {
+      slot = +rawEvent[evIdx++].slice(1)
+    }
 
     const type = +rawEvent[evIdx++]
     const start = +rawEvent[evIdx++]
@@ -73,8 +260,8 @@ export function parseData (unzipped: string, globalData: GlobalDataDto): FrameDa
       params
     }
 
-    if (globalData.podEventCache.length < 1000) {
-      globalData.podEventCache.push({...e, animData: {...e.animData}})
+    if (slot >= 0) {
+      globalData.podEventCache[slot] = {...e, animData: {...e.animData}}
     }
 
     events.push(e)
@@ -120,10 +307,13 @@ export function parseGlobalData (unsplit: string): GlobalDataDto {
   const minY = +raw[idx++]
   const maxX = +raw[idx++]
   const maxY = +raw[idx++]
-  const simplifiedMode = raw[idx++] === '1'
+  // 2 when the astronaut traffic is replaced by one summary per day
+  const simplifiedMode = raw[idx++] !== '0'
   const gameRatio = +raw[idx++]
 
   const city = parseCity(raw[idx++])
+  // Older replays have no dictionary line
+  const frameDictionary = idx < raw.length ? buildFrameDictionary(raw[idx++]) : null
 
   return {
     minX, maxX,
@@ -131,10 +321,38 @@ export function parseGlobalData (unsplit: string): GlobalDataDto {
     initialCity: city,
     gameRatio,
     simplifiedMode,
-    podEventCache: []
+    podEventCache: [],
+    previousFrame: { events: [], score: 0, resources: 0 },
+    frameDictionary
   }
 }
 
+// Same bytes as FrameDictionary.build: a reference to every slot of the event dictionary, in the format of the frames
+function buildFrameDictionary (line: string): Uint8Array | null {
+  const [binaryFrames, slots] = splitLine(line).map(x => +x)
+  if (!slots) {
+    return null
+  }
+  const bytes: number[] = []
+  for (let slot = 0; slot < slots; slot++) {
+    if (binaryFrames === 1) {
+      bytes.push(CACHED_EVENT)
+      let v = slot
+      while (v >= 0x80) {
+        bytes.push((v & 0x7F) | 0x80)
+        v >>>= 7
+      }
+      bytes.push(v)
+    } else {
+      bytes.push(10)
+      for (const c of String(slot)) {
+        bytes.push(c.charCodeAt(0))
+      }
+    }
+  }
+  return Uint8Array.from(bytes)
+}
+
 function parseCoord (coord: string) {
   const [x, y] = coord.split(' ').map(x => +x)
   return { x, y }
@@ -145,50 +363,51 @@ function parseWorkers(param: string): number[] {
     return []
   }
 
-  const code = fromBase91(param)
-  const workers = splitAndParse(code.toString())
-
-  return workers
+  return fromBase91(param)
 }
 
 
 const base91Charset = '0123456789:<=>?@ABCDEFGHIJKLMNOPQRSTUVWXYZ[]^_`abcdefghijklmnopqrstuvwxyz{|}~!"#$%&()*+,-./'
-function fromBase91(str) {
-  const base = BigInt(base91Charset.length)
-  let num = BigInt(0)
+const base91Values: Record<string, number> = {}
+for (let i = 0; i < base91Charset.length; i++) {
+  base91Values[base91Charset[i]] = i
+}
+// Digits below varintBase end a value, the others carry a lower digit and continue
+const varintBase = Math.floor(base91Charset.length / 2)
+
+function fromBase91(str: string): number[] {
+  const values = []
+  let value = 0
+  let mult = 1
 
   for (let i = 0; i < str.length; i++) {
-    const value = base91Charset.indexOf(str[i])
-    if (value === -1) {
+    const digit = base91Values[str[i]]
+    if (digit === undefined) {
       throw new Error('Invalid character in the base-91 string')
     }
-    num = num * base + BigInt(value)
-  }
-
-  return num
-}
-
-function splitAndParse(str) {
-  let result = []
-
-  for (let i = str.length; i > 0; i -= 2) {
-    let pair = str.slice(Math.max(i - 2, 0), i)
-    result.unshift(parseInt(pair, 10))
+    if (digit >= varintBase) {
+      value += (digit - varintBase) * mult
+      mult *= varintBase
+    } else {
+      values.push(value + digit * mult)
+      value = 0
+      mult = 1
+    }
   }
 
-  return result
+  return values
 }
 
-function decompressFromBase64(base64String) {
+function decompressFromBase64(base64String, dictionary: Uint8Array | null) {
   try {
     // Decode Base64 to byte array
     const compressedData = Uint8Array.from(atob(base64String), c => c.charCodeAt(0))
 
     // Decompress using pako (zlib in JS)
-    const decompressedData = pako.inflate(compressedData)
+    // The dictionary is only used by frames deflated with it
+    const decompressedData = dictionary ? pako.inflate(compressedData, { dictionary }) : pako.inflate(compressedData)
 
-    // Convert byte array to string
-    return new TextDecoder('utf-8').decode(decompressedData)
+    return decompressedData
   } catch (e) {
     console.error('An error occurred during decompression:', e)
   }
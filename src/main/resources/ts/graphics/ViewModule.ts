@@ -40,6 +40,34 @@ interface MovableSprite {
   entity: PIXI.DisplayObject
 }
 
+// Turns each TRANSPORT_POD_GROUP into the TRANSPORT_POD events of its pods, staggered like the referee does
+function expandPodGroups (events: EventDto[]): EventDto[] {
+  if (!events.some(e => e.type === ev.TRANSPORT_POD_GROUP)) {
+    return events
+  }
+  const expanded: EventDto[] = []
+  for (const e of events) {
+    if (e.type !== ev.TRANSPORT_POD_GROUP) {
+      expanded.push(e)
+      continue
+    }
+    const [fromId, toId, duration, podCount] = e.params
+    let idx = 4
+    for (let i = 0; i < podCount; i++) {
+      const podId = e.params[idx++]
+      const workerCount = e.params[idx++]
+      const start = e.animData.start + Math.trunc(i * (duration / podCount))
+      expanded.push({
+        type: ev.TRANSPORT_POD,
+        animData: { start, end: start + duration },
+        params: [fromId, toId, podId, ...e.params.slice(idx, idx + workerCount)]
+      })
+      idx += workerCount
+    }
+  }
+  return expanded
+}
+
 export class ViewModule {
   states: FrameData[]
   globalData: GlobalData
@@ -1032,6 +1060,16 @@ export class ViewModule {
           }
         }
 
+        // Traffic of the day, when only summed up
+        const summary = this.currentData.events.find(e => e.type === ev.DAY_SUMMARY)
+        if (summary != null) {
+          for (let i = 0; i < summary.params.length; i += 3) {
+            if (summary.params[i] === buildingData.id) {
+              text += `\nLeft today: ${summary.params[i + 1]}\nArrived today: ${summary.params[i + 2]}`
+            }
+          }
+        }
+
         // Astronaut info
         if (buildingData.workerHistory.length > 0) {
           const workers = last(buildingData.workerHistory).workers
@@ -1186,6 +1224,7 @@ export class ViewModule {
 
   handleFrameData(frameInfo: FrameInfo, raw: string): FrameData {
     const parsed = parseData(raw, this.globalData)
+    parsed.events = expandPodGroups(parsed.events)
 
     const prev = last(this.states)
     let currentDay = prev?.day ?? 29
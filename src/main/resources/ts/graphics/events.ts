@@ -7,5 +7,7 @@ export default {
   ARRIVAL: 5,
   DESTROY_POD: 6,
   NEW_BUILDING: 7,
-  NEW_TELEPORTER: 8
+  NEW_TELEPORTER: 8,
+  TRANSPORT_POD_GROUP: 9,
+  DAY_SUMMARY: 10
 }
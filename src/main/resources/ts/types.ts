@@ -154,6 +154,18 @@ export interface GlobalDataDto {
   initialCity: CityDto
   simplifiedMode: boolean
   podEventCache: EventDto[]
+  previousFrame: PreviousFrameDto
+  // Preset deflate dictionary of the frames, if any
+  frameDictionary: Uint8Array | null
+}
+
+/**
+ * What the last binary frame contained, delta frames are relative to it
+ */
+export interface PreviousFrameDto {
+  events: EventDto[]
+  score: number
+  resources: number
 }
 
 export interface GlobalData extends GlobalDataDto {
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.codingame.game.Checkpoint;
+import com.codingame.game.JsonFields;
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Plays every test case of <code>config/</code> with checkpoints, then restores each game at every month boundary and lists the restored
+ * games that failed or ended with another score. The later months of test cases whose buildings all come first, such as test1, restore a
+ * game with no new building to come.
+ * <p>
+ * Usage: <code>CheckpointRoundTrip [agent class]</code>, the agent defaults to {@link Solution}, which answers every month the same way so
+ * that a restored game plays like the original one. Games are played one at a time, checkpoints are enabled with a system property.
+ */
+public class CheckpointRoundTrip {
+
+    public static void main(String[] args) throws Exception {
+        Class<?> agent = args.length > 0 ? Class.forName(args[0]) : Solution.class;
+        Path directory = Files.createTempDirectory("moon-city-checkpoints");
+
+        int restored = 0;
+        List<String> differences = new ArrayList<>();
+        try {
+            for (int test = 1; Files.exists(Path.of("config", "test" + test + ".json")); test++) {
+                Path checkpoints = directory.resolve("test" + test);
+                System.setProperty(Checkpoint.SYSTEM_PROPERTY, checkpoints.toString());
+                int score;
+                try {
+                    score = score(play(agent, "test" + test + ".json"));
+                } finally {
+                    System.clearProperty(Checkpoint.SYSTEM_PROPERTY);
+                }
+
+                for (Path checkpoint : checkpoints(checkpoints)) {
+                    GameResult result = restore(agent, checkpoint);
+                    restored++;
+                    if (result.failCause != null || score(result) != score) {
+                        differences.add(
+                            String.format(
+                                "test%d from %s: %d instead of %d%s", test, checkpoint.getFileName(), score(result), score,
+                                result.failCause == null ? "" : ", " + result.failCause
+                            )
+                        );
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        for (String difference : differences) {
+            System.out.println(difference);
+        }
+        System.out.println(String.format("%d restored game(s), %d difference(s)", restored, differences.size()));
+        if (!differences.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the checkpoints of the game, by month
+     */
+    private static List<Path> checkpoints(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted(Comparator.comparingInt(CheckpointRoundTrip::month)).toList();
+        }
+    }
+
+    private static int month(Path checkpoint) {
+        String name = checkpoint.getFileName().toString();
+        return Integer.parseInt(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+
+    private static GameResult restore(Class<?> agent, Path checkpoint) throws IOException {
+        // The runner reads its test cases in config/, this one only lives for the game
+        Path testCase = Files.createTempFile(Path.of("config"), "checkpoint-", ".json");
+        try {
+            String testIn = Checkpoint.HEADER + " " + checkpoint.toAbsolutePath();
+            Files.writeString(
+                testCase,
+                "{\n    \"title\": {\n        \"2\": \"Checkpoint\",\n        \"1\": \"Checkpoint\"\n    },\n    \"testIn\": "
+                    + JsonFields.quote(testIn) + ",\n    \"isTest\": \"true\",\n    \"isValidator\": \"false\"\n}"
+            );
+            return play(agent, testCase.getFileName().toString());
+        } finally {
+            Files.delete(testCase);
+        }
+    }
+
+    private static GameResult play(Class<?> agent, String testCase) {
+        SoloGameRunner gameRunner = new SoloGameRunner();
+        gameRunner.setAgent(agent);
+        gameRunner.setTestCase(testCase);
+        return gameRunner.simulate();
+    }
+
+    private static int score(GameResult result) {
+        Integer score = result.scores == null ? null : result.scores.get(0);
+        return score == null ? 0 : score;
+    }
+}
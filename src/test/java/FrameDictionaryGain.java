@@ -0,0 +1,41 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.codingame.game.JsonFields;
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Plays every test case of <code>config/</code> and compares the size of the frames with and without the preset deflate dictionary.
+ * <p>
+ * Usage: <code>FrameDictionaryGain [agent class]</code>, the agent defaults to {@link Solution}. Add
+ * <code>-DmoonCity.frameFormat=text</code> to measure the text format.
+ */
+public class FrameDictionaryGain {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("moonCity.frameStats", "true");
+        Class<?> agent = args.length > 0 ? Class.forName(args[0]) : Solution.class;
+
+        long raw = 0, compressed = 0, reference = 0;
+        for (int test = 1; Files.exists(Path.of("config", "test" + test + ".json")); test++) {
+            SoloGameRunner gameRunner = new SoloGameRunner();
+            gameRunner.setAgent(agent);
+            gameRunner.setTestCase("test" + test + ".json");
+            GameResult result = gameRunner.simulate();
+
+            String metadata = String.valueOf(result.metadata);
+            long testCompressed = JsonFields.getLong(metadata, "frameCompressedBytes", 0);
+            long testReference = JsonFields.getLong(metadata, "frameBytesWithoutDictionary", 0);
+            raw += JsonFields.getLong(metadata, "frameRawBytes", 0);
+            compressed += testCompressed;
+            reference += testReference;
+            System.out.println("test" + test + ": " + testReference + " -> " + testCompressed + " " + gain(testReference, testCompressed));
+        }
+        System.out.println("raw " + raw + ", without dictionary " + reference + ", with dictionary " + compressed + " " + gain(reference, compressed));
+    }
+
+    private static String gain(long reference, long compressed) {
+        return String.format("(%+.1f%%)", reference == 0 ? 0 : 100.0 * (compressed - reference) / reference);
+    }
+}
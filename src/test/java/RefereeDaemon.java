@@ -0,0 +1,168 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.codingame.game.JsonFields;
+import com.codingame.game.ScriptedOutputs;
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Keeps a warm JVM playing games on request, so that short games do not pay for the JVM startup, the class loading and the JIT warm-up.
+ * <p>
+ * Usage: <code>RefereeDaemon --port 7777</code> (localhost only) or <code>RefereeDaemon --unix /tmp/moon-city.sock</code>, plus
+ * <code>--threads 4</code> to serve that many connections at once, one per core by default.
+ * <p>
+ * A request is a block of lines ended by <code>play</code>:
+ *
+ * <pre>
+ * test test3.json
+ * agent Solution                      (an agent class, or a command line)
+ * action TUBE 0 1;TUBE 1 2            (instead of agent: the output line of the next month, played in the daemon's JVM)
+ * action WAIT
+ * replay                              (optional: also return the frames)
+ * play
+ * </pre>
+ *
+ * Each request gets a single JSON line: <code>{"test":"test3.json","score":69500,"millis":412,"failCause":null}</code>, with a
+ * <code>"views"</code> array when the replay was asked. Every game runs in its own <code>SoloGameRunner</code>, nothing is shared with
+ * the previous one. A connection can send any number of requests.
+ * <p>
+ * The <code>action</code> lines are handed to the referee with {@link ScriptedOutputs}, it plays them in order then waits. No agent is
+ * started and nothing is written to disk.
+ */
+public class RefereeDaemon {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        ServerSocketChannel server;
+        SocketAddress address;
+        if (options.containsKey("unix")) {
+            Path socket = Path.of(options.get("unix"));
+            Files.deleteIfExists(socket);
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            address = UnixDomainSocketAddress.of(socket);
+        } else {
+            server = ServerSocketChannel.open();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(options.getOrDefault("port", "7777")));
+        }
+        server.bind(address);
+        System.err.println("Referee daemon listening on " + address);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        while (true) {
+            SocketChannel client = server.accept();
+            executor.submit(() -> serve(client));
+        }
+    }
+
+    private static void serve(SocketChannel client) {
+        try (
+            client;
+            BufferedReader in = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+            Writer out = Channels.newWriter(client, StandardCharsets.UTF_8)
+        ) {
+            Map<String, String> request = new HashMap<>();
+            List<String> actions = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (!line.equals("play")) {
+                    int space = line.indexOf(' ');
+                    String key = space < 0 ? line : line.substring(0, space);
+                    String value = space < 0 ? "" : line.substring(space + 1).trim();
+                    if (key.equals("action")) {
+                        actions.add(value);
+                    } else {
+                        request.put(key, value);
+                    }
+                    continue;
+                }
+                out.write(play(request, actions));
+                out.write('\n');
+                out.flush();
+                request.clear();
+                actions.clear();
+            }
+        } catch (IOException e) {
+            System.err.println("Connection lost: " + e.getMessage());
+        }
+    }
+
+    private static String play(Map<String, String> request, List<String> actions) {
+        String testCase = request.get("test");
+        if (testCase == null) {
+            return "{\"error\":" + JsonFields.quote("missing test") + "}";
+        }
+        long start = System.nanoTime();
+        try {
+            if (!actions.isEmpty()) {
+                // Before the runner, so that the referee thread inherits them
+                ScriptedOutputs.begin(actions);
+            }
+            SoloGameRunner gameRunner = new SoloGameRunner();
+            if (!actions.isEmpty()) {
+                // Never executed, the referee plays the actions itself
+                gameRunner.setAgent(Solution.class);
+            } else {
+                setAgent(gameRunner, request.getOrDefault("agent", Solution.class.getName()));
+            }
+            gameRunner.setTestCase(testCase);
+            GameResult result = gameRunner.simulate();
+
+            Integer score = result.scores == null ? null : result.scores.get(0);
+            StringBuilder json = new StringBuilder();
+            json.append("{\"test\":").append(JsonFields.quote(testCase))
+                .append(",\"score\":").append(score == null ? 0 : score)
+                .append(",\"millis\":").append((System.nanoTime() - start) / 1_000_000)
+                .append(",\"failCause\":").append(JsonFields.quote(result.failCause));
+            if (request.containsKey("replay")) {
+                json.append(",\"views\":[");
+                List<String> views = result.views == null ? List.of() : result.views;
+                for (int i = 0; i < views.size(); i++) {
+                    json.append(i == 0 ? "" : ",").append(JsonFields.quote(views.get(i)));
+                }
+                json.append(']');
+            }
+            return json.append('}').toString();
+        } catch (RuntimeException e) {
+            return "{\"test\":" + JsonFields.quote(testCase) + ",\"error\":" + JsonFields.quote(String.valueOf(e)) + "}";
+        } finally {
+            ScriptedOutputs.end();
+        }
+    }
+
+    private static void setAgent(SoloGameRunner gameRunner, String agent) {
+        try {
+            gameRunner.setAgent(Class.forName(agent));
+        } catch (ClassNotFoundException e) {
+            // Not a class of the class path, a command line
+            gameRunner.setAgent(agent);
+        }
+    }
+}
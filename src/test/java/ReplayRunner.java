@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import com.codingame.game.JsonFields;
+import com.codingame.game.Recording;
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Replays every recording of a directory of <code>config/</code> concurrently, and lists the games whose score changed. See
+ * {@link Recording}, games are recorded with <code>-DmoonCity.recordOutputs=config/replays</code>.
+ * <p>
+ * Usage: <code>ReplayRunner [directory in config/] [threads]</code>, the directory defaults to <code>replays</code> and the threads to the
+ * number of cores.
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws Exception {
+        String directory = args.length > 0 ? args[0] : "replays";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<String> recordings;
+        try (Stream<Path> files = Files.list(Path.of("config", directory))) {
+            recordings = files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(".json")).sorted().toList();
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> futures = new ArrayList<>();
+        for (String recording : recordings) {
+            futures.add(executor.submit(() -> replay(directory + "/" + recording)));
+        }
+
+        List<String> differences = new ArrayList<>();
+        try {
+            for (Future<String> future : futures) {
+                String difference = future.get();
+                if (difference != null) {
+                    differences.add(difference);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A recording could not be replayed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        for (String difference : differences) {
+            System.out.println(difference);
+        }
+        System.out.println(
+            String.format(
+                "%d replay(s), %d score difference(s), %d ms with %d thread(s)", recordings.size(), differences.size(),
+                (System.nanoTime() - start) / 1_000_000, threads
+            )
+        );
+        if (!differences.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return a description of the score difference, null when the replay matches the recording
+     */
+    private static String replay(String testCase) throws IOException {
+        SoloGameRunner gameRunner = new SoloGameRunner();
+        // Never executed, the referee plays the recorded outputs itself
+        gameRunner.setAgent(Solution.class);
+        gameRunner.setTestCase(testCase);
+        GameResult result = gameRunner.simulate();
+
+        String metadata = String.valueOf(result.metadata);
+        long points = JsonFields.getLong(metadata, "points", -1);
+        long recordedPoints = JsonFields.getLong(metadata, "recordedPoints", -1);
+        if (points == recordedPoints && result.failCause == null) {
+            return null;
+        }
+        long diff = points - recordedPoints;
+        return String.format(
+            "%s: %d -> %d (%+d)%s", testCase, recordedPoints, points, diff, result.failCause == null ? "" : " " + result.failCause
+        );
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.codingame.game.InProcessAgent;
+import com.codingame.game.MonthState;
+
+/**
+ * Agent replaying a fixed list of outputs, one line per month, such as the <code>.actions</code> files written by
+ * {@link TestCaseGenerator}.
+ * <p>
+ * The file is given as first argument, or through the <code>agent.actions</code> system property when the agent is started with
+ * <code>SoloGameRunner.setAgent(ScriptedAgent.class)</code>.
+ * <p>
+ * It can also be called in-process, with <code>-DmoonCity.inProcessAgent=ScriptedAgent -Dagent.actions=&lt;file&gt;</code>.
+ */
+class ScriptedAgent implements InProcessAgent {
+    private final List<String> actions;
+    private int month;
+
+    ScriptedAgent() throws IOException {
+        actions = Files.readAllLines(Path.of(System.getProperty("agent.actions")));
+    }
+
+    @Override
+    public List<String> play(MonthState state) {
+        // A whole line is a valid action list once joined back
+        return List.of(month < actions.size() ? actions.get(month++) : "WAIT");
+    }
+
+    public static void main(String args[]) throws IOException {
+        String actionsFile = args.length > 0 ? args[0] : System.getProperty("agent.actions");
+        List<String> actions = Files.readAllLines(Path.of(actionsFile));
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+
+        for (int month = 0;; month++) {
+            String resources = in.readLine();
+            if (resources == null) {
+                return;
+            }
+            skipLines(in, Integer.parseInt(in.readLine().trim()));
+            skipLines(in, Integer.parseInt(in.readLine().trim()));
+            skipLines(in, Integer.parseInt(in.readLine().trim()));
+
+            System.out.println(month < actions.size() ? actions.get(month) : "WAIT");
+        }
+    }
+
+    private static void skipLines(BufferedReader in, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            in.readLine();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Plays every test case of <code>config/</code> concurrently and prints the score of each one. Every game gets its own
+ * <code>SoloGameRunner</code>, hence its own injector, referee, animation and view module.
+ * <p>
+ * Usage: <code>SuiteRunner [agent class] [threads]</code>, the agent defaults to {@link Solution} and the threads to the number of
+ * cores.
+ */
+public class SuiteRunner {
+
+    public static void main(String[] args) throws Exception {
+        Class<?> agent = args.length > 0 ? Class.forName(args[0]) : Solution.class;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<String> testCases = new ArrayList<>();
+        for (int test = 1; Files.exists(Path.of("config", "test" + test + ".json")); test++) {
+            testCases.add("test" + test + ".json");
+        }
+
+        long suiteStart = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<TestResult>> futures = new ArrayList<>();
+        for (String testCase : testCases) {
+            futures.add(executor.submit(() -> play(agent, testCase)));
+        }
+
+        long total = 0;
+        int failures = 0;
+        System.out.println(String.format("%-12s %10s %8s  %s", "test", "score", "ms", "failure"));
+        try {
+            for (Future<TestResult> future : futures) {
+                TestResult result = future.get();
+                total += result.score;
+                if (result.failCause != null) {
+                    failures++;
+                }
+                System.out.println(
+                    String.format(
+                        "%-12s %10d %8d  %s", result.testCase.replace(".json", ""), result.score, result.millis,
+                        result.failCause == null ? "" : result.failCause
+                    )
+                );
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A test case could not be played", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        long wallMillis = (System.nanoTime() - suiteStart) / 1_000_000;
+        System.out.println(String.format("%-12s %10d %8d  %d failure(s), %d thread(s)", "total", total, wallMillis, failures, threads));
+    }
+
+    private static TestResult play(Class<?> agent, String testCase) {
+        long start = System.nanoTime();
+        SoloGameRunner gameRunner = new SoloGameRunner();
+        gameRunner.setAgent(agent);
+        gameRunner.setTestCase(testCase);
+        GameResult result = gameRunner.simulate();
+
+        TestResult testResult = new TestResult();
+        testResult.testCase = testCase;
+        testResult.millis = (System.nanoTime() - start) / 1_000_000;
+        Integer score = result.scores == null ? null : result.scores.get(0);
+        testResult.score = score == null ? 0 : score;
+        testResult.failCause = result.failCause;
+        return testResult;
+    }
+
+    private static class TestResult {
+        String testCase;
+        int score;
+        long millis;
+        String failCause;
+    }
+}
@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.codingame.game.Building;
+import com.codingame.game.City;
+import com.codingame.game.Constants;
+import com.codingame.game.GameLimits;
+import com.codingame.game.GameWarning;
+import com.codingame.game.Referee;
+import com.codingame.game.WorkBuilding;
+
+/**
+ * Generates large test cases in the format read by <code>Referee.init</code>, along with a matching list of agent outputs (one line per
+ * month) that {@link ScriptedAgent} can replay.
+ * <p>
+ * Usage: <code>TestCaseGenerator --out stress/big --seed 42 --months 20 --buildings 150 --types 20 --astronauts 1000 --layout grid</code>
+ * <p>
+ * <code>--summary true</code> only sums up the astronaut traffic of each day, for huge maps.
+ * <p>
+ * <code>--pods</code>, <code>--days</code> and <code>--tubes</code> raise the matching {@link GameLimits} through the test case header.
+ * <p>
+ * Writes <code>big.txt</code> (raw test case), <code>big.json</code> (same test case, in the <code>config/</code> format) and
+ * <code>big.actions</code>.
+ */
+public class TestCaseGenerator {
+
+    public enum Layout {
+        UNIFORM, CLUSTERED, GRID
+    }
+
+    long seed = 0;
+    int months = 20;
+    int buildingsPerMonth = 10;
+    int workTypes = 20;
+    int astronautsPerPad = 100;
+    double landingPadRatio = 0.2;
+    int resourcesPerMonth = -1;
+    int width = 160;
+    int height = 90;
+    int gridSpacing = 4;
+    Layout layout = Layout.UNIFORM;
+    Integer gameRatio = null;
+    boolean simplified = false;
+    boolean summary = false;
+    GameLimits limits = new GameLimits();
+
+    private Random random;
+    private boolean[][] occupied;
+    private List<int[]> clusterCenters;
+    private List<int[]> gridCells;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+
+        TestCaseGenerator generator = new TestCaseGenerator();
+        generator.seed = Long.parseLong(options.getOrDefault("seed", "0"));
+        generator.months = Integer.parseInt(options.getOrDefault("months", "20"));
+        generator.buildingsPerMonth = Integer.parseInt(options.getOrDefault("buildings", "10"));
+        generator.workTypes = Integer.parseInt(options.getOrDefault("types", "20"));
+        generator.astronautsPerPad = Integer.parseInt(options.getOrDefault("astronauts", "100"));
+        generator.landingPadRatio = Double.parseDouble(options.getOrDefault("padRatio", "0.2"));
+        generator.resourcesPerMonth = Integer.parseInt(options.getOrDefault("resources", "-1"));
+        generator.width = Integer.parseInt(options.getOrDefault("width", "160"));
+        generator.height = Integer.parseInt(options.getOrDefault("height", "90"));
+        generator.gridSpacing = Integer.parseInt(options.getOrDefault("spacing", "4"));
+        generator.layout = Layout.valueOf(options.getOrDefault("layout", "uniform").toUpperCase());
+        if (options.containsKey("ratio")) {
+            generator.gameRatio = Integer.valueOf(options.get("ratio"));
+        }
+        generator.simplified = Boolean.parseBoolean(options.getOrDefault("simplified", "false"));
+        generator.summary = Boolean.parseBoolean(options.getOrDefault("summary", "false"));
+        for (String limit : new String[] { "pods", "days", "tubes" }) {
+            if (options.containsKey(limit)) {
+                generator.limits.set(limit, Integer.parseInt(options.get(limit)));
+            }
+        }
+
+        String out = options.getOrDefault("out", "stress");
+        generator.generate();
+        generator.write(out);
+    }
+
+    private StringBuilder testCase;
+    private StringBuilder actions;
+
+    public void generate() {
+        random = new Random(seed);
+        occupied = new boolean[width + 1][height + 1];
+        clusterCenters = new ArrayList<>();
+        gridCells = new ArrayList<>();
+        if (resourcesPerMonth < 0) {
+            resourcesPerMonth = 4_000 * buildingsPerMonth;
+        }
+        if ((long) months * buildingsPerMonth > (long) (width + 1) * (height + 1) / 2) {
+            throw new IllegalArgumentException("Too many buildings for a " + width + "x" + height + " map");
+        }
+
+        testCase = new StringBuilder();
+        actions = new StringBuilder();
+        if (gameRatio != null) {
+            testCase.append("x").append(gameRatio).append('\n');
+        }
+        if (simplified || summary) {
+            testCase.append(summary ? "simplified " + Referee.SUMMARY_HEADER + "\n" : "simplified\n");
+        }
+        if (!limits.isDefault()) {
+            testCase.append(limits.formatHeader()).append('\n');
+        }
+        testCase.append(months).append('\n');
+
+        // The scripted agent is checked against the real city rules so that its actions are (mostly) accepted by the referee
+        City city = new City();
+        city.limits = limits;
+        boolean[] builtTypes = new boolean[workTypes + 1];
+        List<Integer> availableTypes = new ArrayList<>();
+        int nextBuildingId = 0;
+        int nextPodId = 1;
+
+        for (int month = 0; month < months; month++) {
+            testCase.append(buildingsPerMonth).append(' ').append(resourcesPerMonth).append('\n');
+            city.resources += resourcesPerMonth;
+
+            List<Building> monthBuildings = new ArrayList<>();
+            for (int i = 0; i < buildingsPerMonth; i++) {
+                int[] coord = nextCoordinates();
+                boolean landingPad = !availableTypes.isEmpty() && random.nextDouble() < landingPadRatio;
+                int type = landingPad ? Constants.LANDING_BUILDING_TYPE : 1 + random.nextInt(workTypes);
+                if (!landingPad && !builtTypes[type]) {
+                    builtTypes[type] = true;
+                    availableTypes.add(type);
+                }
+
+                testCase.append(type).append(' ').append(coord[0]).append(' ').append(coord[1]).append('\n');
+                if (landingPad) {
+                    for (int a = 0; a < astronautsPerPad; a++) {
+                        testCase.append(a == 0 ? "" : " ").append(availableTypes.get(random.nextInt(availableTypes.size())));
+                    }
+                    testCase.append('\n');
+                }
+                // The astronaut list does not matter to the city rules
+                Building building = new WorkBuilding(nextBuildingId++, coord[0], coord[1], type);
+                building.remainingTubeSlots = limits.maxTubesPerBuilding;
+                city.addBuilding(building);
+                monthBuildings.add(building);
+            }
+
+            List<String> monthActions = new ArrayList<>();
+            for (Building building : monthBuildings) {
+                List<Building> closest = new ArrayList<>(city.buildings.values());
+                closest.remove(building);
+                closest.sort(Comparator.comparingDouble(other -> City.euclideanDist(building, other)));
+                for (int i = 0; i < Math.min(3, closest.size()); i++) {
+                    Building other = closest.get(i);
+                    try {
+                        city.createTube(building.id, other.id);
+                    } catch (GameWarning e) {
+                        continue;
+                    }
+                    monthActions.add(Constants.TUBE_ACTION + " " + building.id + " " + other.id);
+                    if (nextPodId <= limits.maxPodId && city.resources >= Constants.POD_COST) {
+                        city.createPod(nextPodId, new int[] { building.id, other.id, building.id }, 3);
+                        monthActions.add(Constants.POD_ACTION + " " + nextPodId + " " + building.id + " " + other.id + " " + building.id);
+                        nextPodId++;
+                    }
+                    break;
+                }
+            }
+            actions.append(monthActions.isEmpty() ? Constants.WAIT_ACTION : String.join(";", monthActions)).append('\n');
+            city.resources = city.resources * Constants.RESOURCE_INTEREST_PERCENTAGE / 100;
+        }
+    }
+
+    private int[] nextCoordinates() {
+        for (int attempt = 0; attempt < 10_000; attempt++) {
+            int[] coord = switch (layout) {
+                case UNIFORM -> new int[] { random.nextInt(width + 1), random.nextInt(height + 1) };
+                case CLUSTERED -> clusteredCoordinates();
+                case GRID -> gridCoordinates();
+            };
+            if (coord[0] >= 0 && coord[0] <= width && coord[1] >= 0 && coord[1] <= height && !occupied[coord[0]][coord[1]]) {
+                occupied[coord[0]][coord[1]] = true;
+                return coord;
+            }
+        }
+        throw new IllegalStateException("Could not find a free spot for a new building, the map is too crowded");
+    }
+
+    private int[] clusteredCoordinates() {
+        int clusterCount = Math.max(1, (int) Math.sqrt(months * buildingsPerMonth) / 2);
+        if (clusterCenters.size() < clusterCount) {
+            clusterCenters.add(new int[] { random.nextInt(width + 1), random.nextInt(height + 1) });
+        }
+        int[] center = clusterCenters.get(random.nextInt(clusterCenters.size()));
+        double spread = Math.max(2, Math.min(width, height) / 12d);
+        return new int[] {
+            (int) Math.round(center[0] + random.nextGaussian() * spread),
+            (int) Math.round(center[1] + random.nextGaussian() * spread)
+        };
+    }
+
+    private int[] gridCoordinates() {
+        // Aligned rows and columns put many buildings on the same lines, which stresses the tube intersection rules
+        if (gridCells.isEmpty()) {
+            int spacing = gridSpacing;
+            while (spacing > 1 && (width / spacing + 1) * (height / spacing + 1) < 2 * months * buildingsPerMonth) {
+                spacing--;
+            }
+            for (int x = 0; x <= width; x += spacing) {
+                for (int y = 0; y <= height; y += spacing) {
+                    gridCells.add(new int[] { x, y });
+                }
+            }
+        }
+        return gridCells.get(random.nextInt(gridCells.size()));
+    }
+
+    public void write(String out) throws IOException {
+        Path base = Path.of(out);
+        if (base.getParent() != null) {
+            Files.createDirectories(base.getParent());
+        }
+        Files.writeString(Path.of(out + ".txt"), testCase);
+        Files.writeString(Path.of(out + ".actions"), actions);
+
+        String title = "Stress " + layout.name().toLowerCase() + " " + months * buildingsPerMonth + " (seed " + seed + ")";
+        String json = "{\n"
+            + "    \"title\": {\n"
+            + "        \"2\": \"" + title + "\",\n"
+            + "        \"1\": \"" + title + "\"\n"
+            + "    },\n"
+            + "    \"testIn\": \"" + testCase.toString().replace("\n", "\\n") + "\",\n"
+            + "    \"isTest\": \"true\",\n"
+            + "    \"isValidator\": \"false\"\n"
+            + "}";
+        Files.writeString(Path.of(out + ".json"), json);
+    }
+
+    public String getTestCase() {
+        return testCase.toString();
+    }
+
+    public String getActions() {
+        return actions.toString();
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.codingame.game.JsonFields;
+import com.codingame.game.Referee;
+import com.codingame.gameengine.runner.SoloGameRunner;
+import com.codingame.gameengine.runner.dto.GameResult;
+import com.codingame.view.ViewModule;
+
+/**
+ * Plays the whole test suite through <code>SoloGameRunner</code>, one game at a time, and measures the throughput of the engine: games
+ * and turns per second, turn latency percentiles and peak heap. The suite is played with frames, then without frames
+ * (<code>-DmoonCity.frames=false</code>), after a warm-up pass in each mode.
+ * <p>
+ * The <code>config/test*.json</code> tests are played by {@link Solution}, stress cases by {@link ScriptedAgent} with the
+ * <code>.actions</code> file next to them. A turn lasts from the start of <code>Referee.gameTurn</code> to the start of the next one, so it
+ * includes the agent and the frame sent after the turn (<code>-DmoonCity.turnTimes=true</code>).
+ * <p>
+ * Usage: <code>ThroughputBenchmark --stress stress/big,stress/huge --warmup 1 --out throughput.json</code>, stress cases are given
+ * relative to <code>config/</code>, without extension. The JSON report goes to the standard output without <code>--out</code>.
+ */
+public class ThroughputBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+
+        List<String> testCases = new ArrayList<>();
+        for (int test = 1; Files.exists(Path.of("config", "test" + test + ".json")); test++) {
+            testCases.add("test" + test);
+        }
+        if (options.containsKey("stress")) {
+            testCases.addAll(Arrays.asList(options.get("stress").split(",")));
+        }
+
+        System.setProperty(Referee.TURN_TIMES_PROPERTY, "true");
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"testCases\": ").append(testCases.size()).append(",\n");
+        json.append("  \"modes\": {\n");
+        for (boolean frames : new boolean[] { true, false }) {
+            System.setProperty(ViewModule.FRAMES_PROPERTY, String.valueOf(frames));
+            for (int pass = 0; pass < warmup; pass++) {
+                playSuite(testCases);
+            }
+            json.append("    \"").append(frames ? "frames" : "noFrames").append("\": ").append(playSuite(testCases).toJson());
+            json.append(frames ? ",\n" : "\n");
+        }
+        json.append("  }\n}\n");
+        System.clearProperty(ViewModule.FRAMES_PROPERTY);
+
+        if (options.containsKey("out")) {
+            Files.writeString(Path.of(options.get("out")), json);
+        } else {
+            System.out.print(json);
+        }
+    }
+
+    private static SuiteResult playSuite(List<String> testCases) {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        SuiteResult result = new SuiteResult();
+        long start = System.nanoTime();
+        for (String testCase : testCases) {
+            SoloGameRunner gameRunner = new SoloGameRunner();
+            if (testCase.startsWith("test")) {
+                gameRunner.setAgent(Solution.class);
+            } else {
+                System.setProperty("agent.actions", Path.of("config", testCase + ".actions").toString());
+                gameRunner.setAgent(ScriptedAgent.class);
+            }
+            gameRunner.setTestCase(testCase + ".json");
+            GameResult game = gameRunner.simulate();
+            result.add(String.valueOf(game.metadata), game.failCause != null);
+        }
+        result.nanos = System.nanoTime() - start;
+        result.peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return result;
+    }
+
+    private static class SuiteResult {
+        int games;
+        int failures;
+        // Every turn of every game, in microseconds
+        int[] turnMicros = new int[1024];
+        int turns;
+        long nanos;
+        long peakHeapBytes;
+
+        void add(String metadata, boolean failed) {
+            games++;
+            if (failed) {
+                failures++;
+            }
+            String gameTurnMicros = JsonFields.get(metadata, "turnMicros");
+            if (gameTurnMicros == null) {
+                throw new IllegalStateException("No turn times in the metadata, the referee ignored -D" + Referee.TURN_TIMES_PROPERTY);
+            }
+            for (String micros : gameTurnMicros.trim().split(" ")) {
+                if (turns == turnMicros.length) {
+                    turnMicros = Arrays.copyOf(turnMicros, turns * 2);
+                }
+                turnMicros[turns++] = Integer.parseInt(micros);
+            }
+        }
+
+        /**
+         * Nearest rank.
+         */
+        int percentile(int[] sorted, int percent) {
+            return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(percent / 100d * sorted.length) - 1)];
+        }
+
+        String toJson() {
+            int[] sorted = Arrays.copyOf(turnMicros, turns);
+            Arrays.sort(sorted);
+            double seconds = nanos / 1e9;
+            return String.format(
+                Locale.ROOT, "{\"games\": %d, \"failures\": %d, \"turns\": %d, \"seconds\": %.3f, \"gamesPerSecond\": %.2f, \"turnsPerSecond\": %.1f, "
+                    + "\"turnP50Micros\": %d, \"turnP99Micros\": %d, \"peakHeapBytes\": %d}",
+                games, failures, turns, seconds, games / seconds, turns / seconds, percentile(sorted, 50), percentile(sorted, 99), peakHeapBytes
+            );
+        }
+    }
+}
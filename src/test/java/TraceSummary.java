@@ -0,0 +1,50 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.codingame.game.SimulationTrace;
+import com.codingame.game.TraceReader;
+
+/**
+ * Sums up a trace written with <code>-DmoonCity.trace=&lt;directory&gt;</code>: records of each kind, points, and the busiest tubes.
+ * <p>
+ * Usage: <code>TraceSummary traces/1a2b3c4d-123.trace [tubes to list]</code>
+ */
+public class TraceSummary {
+
+    public static void main(String[] args) throws IOException {
+        int tubesToList = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        long[] countByKind = new long[SimulationTrace.POD_DEPARTURE + 1];
+        long points = 0;
+        // Boardings and pod departures of each tube, in one direction
+        Map<Long, long[]> tubes = new HashMap<>();
+        try (TraceReader trace = TraceReader.open(Path.of(args[0]))) {
+            while (trace.next()) {
+                byte kind = trace.kind();
+                countByKind[kind]++;
+                if (kind == SimulationTrace.ARRIVAL) {
+                    points += trace.value();
+                } else if (kind == SimulationTrace.BOARDING || kind == SimulationTrace.POD_DEPARTURE) {
+                    long tube = (long) trace.from() << 32 | trace.to();
+                    tubes.computeIfAbsent(tube, k -> new long[2])[kind == SimulationTrace.BOARDING ? 0 : 1]++;
+                }
+            }
+        }
+
+        System.out.println("boardings      " + countByKind[SimulationTrace.BOARDING]);
+        System.out.println("teleports      " + countByKind[SimulationTrace.TELEPORT]);
+        System.out.println("arrivals       " + countByKind[SimulationTrace.ARRIVAL]);
+        System.out.println("pod departures " + countByKind[SimulationTrace.POD_DEPARTURE]);
+        System.out.println("points         " + points);
+        System.out.println();
+        System.out.println(String.format("%-12s %10s %10s", "tube", "boardings", "pods"));
+        tubes.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+            .limit(tubesToList)
+            .forEach(tube -> System.out.println(
+                String.format("%5d->%-5d %10d %10d", tube.getKey() >>> 32, tube.getKey() & 0xFFFFFFFFL, tube.getValue()[0], tube.getValue()[1])
+            ));
+    }
+}